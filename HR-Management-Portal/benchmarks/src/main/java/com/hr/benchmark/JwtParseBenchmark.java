@@ -0,0 +1,62 @@
+package com.hr.benchmark;
+
+import com.hr.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second by the JWT filter.
+ * perRequestKeyAndParser reproduces the old JwtUtil, which derived the HMAC key
+ * and built a new parser for each of the five claim lookups the filter made.
+ * The other two use the cached key and parser, with and without the single
+ * parseClaims call per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "HR-Management-Portal-Secret-Key-2024-Very-Long-Secret-For-Security";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil(SECRET, 86_400_000L, 604_800_000L);
+        token = jwtUtil.generateToken(42, "emp42", "USER", "emp42@hr.com", "Benchmark User");
+    }
+
+    @Benchmark
+    public void perRequestKeyAndParser(Blackhole bh) {
+        for (int i = 0; i < 5; i++) {
+            bh.consume(Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload());
+        }
+    }
+
+    @Benchmark
+    public void cachedParserFiveLookups(Blackhole bh) {
+        bh.consume(jwtUtil.getUsernameFromToken(token));
+        bh.consume(jwtUtil.getExpirationDateFromToken(token));
+        bh.consume(jwtUtil.getUserIdFromToken(token));
+        bh.consume(jwtUtil.getRoleFromToken(token));
+        bh.consume(jwtUtil.getEmailFromToken(token));
+    }
+
+    @Benchmark
+    public Claims cachedParserSingleParse() {
+        return jwtUtil.parseClaims(token);
+    }
+}
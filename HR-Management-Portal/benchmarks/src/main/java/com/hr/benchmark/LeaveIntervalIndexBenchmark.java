@@ -0,0 +1,68 @@
+package com.hr.benchmark;
+
+import com.hr.leave.LeaveIntervalIndex;
+import com.hr.leave.LeaveIntervalIndex.Leave;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Who is out" over ten years of approved leave for one department.
+ * scan checks every leave against the window, as a filter over all rows does;
+ * overlapping and anyOn use the interval index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeaveIntervalIndexBenchmark {
+
+    @Param({"50000"})
+    private int leaves;
+
+    private List<Leave> all;
+    private LeaveIntervalIndex index;
+    private final LocalDate from = LocalDate.of(2024, 6, 10);
+    private final LocalDate to = LocalDate.of(2024, 6, 16);
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        int firstDay = (int) LocalDate.of(2016, 1, 1).toEpochDay();
+        all = new ArrayList<>(leaves);
+        for (int i = 0; i < leaves; i++) {
+            int start = firstDay + random.nextInt(3650);
+            all.add(new Leave(i, random.nextInt(500), start, start + random.nextInt(10)));
+        }
+        index = LeaveIntervalIndex.of(all);
+    }
+
+    @Benchmark
+    public int scan() {
+        int from = (int) this.from.toEpochDay();
+        int to = (int) this.to.toEpochDay();
+        int count = 0;
+        for (Leave leave : all) {
+            if (leave.firstDay() <= to && leave.lastDay() >= from) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int overlapping() {
+        return index.overlapping(from, to).size();
+    }
+
+    @Benchmark
+    public boolean anyOn() {
+        return index.anyOn(from);
+    }
+}
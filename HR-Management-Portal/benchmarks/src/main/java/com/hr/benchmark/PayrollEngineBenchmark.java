@@ -0,0 +1,69 @@
+package com.hr.benchmark;
+
+import com.hr.entity.Payroll;
+import com.hr.payroll.PayrollBatch;
+import com.hr.payroll.PayrollEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payroll calculation for a whole workforce in one call.
+ * entityPerEmployee builds and calculates one Payroll entity per employee
+ * (boxed Double fields and a one-row batch each), the per-row path generation
+ * used before it switched to batches.
+ * engineBatch runs the fixed-point engine over a prepared columnar batch;
+ * engineBatchWithLoad also includes filling the batch from the salaries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollEngineBenchmark {
+
+    @Param({"100000"})
+    private int employees;
+
+    private double[] salaries;
+    private PayrollBatch batch;
+    private final PayrollEngine engine = PayrollEngine.standard();
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        salaries = new double[employees];
+        batch = new PayrollBatch(employees);
+        for (int i = 0; i < employees; i++) {
+            // 15k to 250k a month, whole rupees and paise
+            salaries[i] = 15_000 + random.nextInt(23_500_000) / 100.0;
+            batch.add(PayrollEngine.toPaise(salaries[i]), 0, 0, 22, 22 - random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public void entityPerEmployee(Blackhole bh) {
+        for (int i = 0; i < employees; i++) {
+            bh.consume(new Payroll(i, salaries[i], "October", 2025).getNetSalary());
+        }
+    }
+
+    @Benchmark
+    public long engineBatch() {
+        engine.calculate(batch);
+        return batch.getNetSalary(employees - 1);
+    }
+
+    @Benchmark
+    public long engineBatchWithLoad() {
+        batch.clear();
+        for (int i = 0; i < employees; i++) {
+            batch.add(PayrollEngine.toPaise(salaries[i]), 0, 0, 22, 22);
+        }
+        engine.calculate(batch);
+        return batch.getNetSalary(employees - 1);
+    }
+}
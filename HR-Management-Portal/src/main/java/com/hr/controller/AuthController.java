@@ -10,8 +10,13 @@ import org.springframework.web.bind.annotation.*;
 
 import com.hr.entity.Employee;
 import com.hr.repository.EmployeeRepo;
+import com.hr.security.CredentialCache;
+import com.hr.security.CredentialCache.Credentials;
+import com.hr.security.JwtPrincipal;
 import com.hr.security.JwtUtil;
 
+import io.jsonwebtoken.JwtException;
+
 @RestController
 @RequestMapping("/api/auth")
 //@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
@@ -25,6 +30,9 @@ public class AuthController {
     
     @Autowired
     private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private CredentialCache credentialCache;
 
     @PostMapping("/login")
     public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> credentials) {
@@ -32,60 +40,43 @@ public class AuthController {
         String password = credentials.get("password");
         
         Map<String, Object> response = new HashMap<>();
-        Employee employee = null;
+        Credentials employee = null;
         
         try {
-            // First, try to authenticate using email and password
+            // Resolve the account with a single indexed lookup (cached for email logins)
+            Optional<Credentials> credentialsOpt = Optional.empty();
             if (username.contains("@")) {
                 // Email-based authentication - find by email first, then verify password
-                Optional<Employee> empOpt = employeeRepo.findAll().stream()
-                    .filter(emp -> emp.getEmail().equals(username))
-                    .findFirst();
-                
-                if (empOpt.isPresent()) {
-                    Employee emp = empOpt.get();
-                    // Check if password matches (either bcrypt or plain text for backward compatibility)
-                    if ((emp.getPassword() != null && 
-                         (passwordEncoder.matches(password, emp.getPassword()) || 
-                          password.equals(emp.getPassword())))) {
-                        employee = emp;
-                    }
-                }
+                credentialsOpt = credentialCache.findByEmail(username);
             } else if (username.startsWith("emp")) {
                 // Employee ID-based authentication (format like "emp123")
                 String empId = username.substring(3);
                 int employeeId = Integer.parseInt(empId);
-                Optional<Employee> empOpt = employeeRepo.findById(employeeId);
-                
-                if (empOpt.isPresent()) {
-                    Employee emp = empOpt.get();
-                    // Check if password matches (either bcrypt or plain text for backward compatibility)
-                    if ((emp.getPassword() != null && 
-                         (passwordEncoder.matches(password, emp.getPassword()) || 
-                          password.equals(emp.getPassword())))) {
-                        employee = emp;
-                    }
-                }
+                credentialsOpt = credentialCache.findById(employeeId);
             }
             
-            if (employee != null && employee.isActive()) {
+            if (credentialsOpt.isPresent() && passwordMatches(password, credentialsOpt.get().passwordHash())) {
+                employee = credentialsOpt.get();
+            }
+            
+            if (employee != null && employee.active()) {
                 // Generate JWT token
                 String token = jwtUtil.generateToken(
-                    employee.getId(), 
+                    employee.id(), 
                     username, 
-                    employee.getRole(), 
-                    employee.getEmail(), 
-                    employee.getEmployeeName()
+                    employee.role(), 
+                    employee.email(), 
+                    employee.name()
                 );
                 String refreshToken = jwtUtil.generateRefreshToken(username);
                 
                 Map<String, Object> user = new HashMap<>();
-                user.put("id", employee.getId());
+                user.put("id", employee.id());
                 user.put("username", username);
-                user.put("role", employee.getRole());
-                user.put("name", employee.getEmployeeName());
-                user.put("designation", employee.getDesignation());
-                user.put("email", employee.getEmail());
+                user.put("role", employee.role());
+                user.put("name", employee.name());
+                user.put("designation", employee.designation());
+                user.put("email", employee.email());
                 
                 response.put("success", true);
                 response.put("message", "Login successful");
@@ -226,22 +217,25 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
             
-            if (jwtUtil.isTokenValid(refreshToken)) {
-                String username = jwtUtil.getUsernameFromToken(refreshToken);
+            String username = null;
+            try {
+                username = jwtUtil.parseClaims(refreshToken).getSubject();
+            } catch (JwtException e) {
+                // Fall through to the invalid-token response
+            }
+            
+            if (username != null) {
                 
                 // Find user by username (could be email or employee ID)
-                Employee employee = null;
+                Credentials employee = null;
                 if (username.contains("@")) {
-                    employee = employeeRepo.findByEmailAndPassword(username, null);
+                    employee = credentialCache.findByEmail(username).orElse(null);
                 } else {
                     try {
                         if (username.startsWith("emp")) {
                             String empId = username.substring(3);
                             int employeeId = Integer.parseInt(empId);
-                            Optional<Employee> empOpt = employeeRepo.findById(employeeId);
-                            if (empOpt.isPresent()) {
-                                employee = empOpt.get();
-                            }
+                            employee = credentialCache.findById(employeeId).orElse(null);
                         } else {
                             // Handle demo users
                             if ("admin".equals(username) || "user".equals(username)) {
@@ -266,13 +260,13 @@ public class AuthController {
                     }
                 }
                 
-                if (employee != null && employee.isActive()) {
+                if (employee != null && employee.active()) {
                     String newToken = jwtUtil.generateToken(
-                        employee.getId(), 
+                        employee.id(), 
                         username, 
-                        employee.getRole(), 
-                        employee.getEmail(), 
-                        employee.getEmployeeName()
+                        employee.role(), 
+                        employee.email(), 
+                        employee.name()
                     );
                     String newRefreshToken = jwtUtil.generateRefreshToken(username);
                     
@@ -312,24 +306,25 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
             
-            if (jwtUtil.isTokenValid(token)) {
-                String username = jwtUtil.getUsernameFromToken(token);
-                Integer userId = jwtUtil.getUserIdFromToken(token);
-                String role = jwtUtil.getRoleFromToken(token);
-                String email = jwtUtil.getEmailFromToken(token);
-                String name = jwtUtil.getNameFromToken(token);
-                long remainingTime = jwtUtil.getTokenExpirationTime(token);
-                
+            // Parse the token once; invalid or expired tokens fail verification
+            JwtPrincipal principal = null;
+            try {
+                principal = jwtUtil.getPrincipalFromToken(token);
+            } catch (JwtException e) {
+                // Fall through to the invalid-token response
+            }
+            
+            if (principal != null) {
                 Map<String, Object> user = new HashMap<>();
-                user.put("id", userId);
-                user.put("username", username);
-                user.put("role", role);
-                user.put("email", email);
-                user.put("name", name);
+                user.put("id", principal.userId());
+                user.put("username", principal.username());
+                user.put("role", principal.role());
+                user.put("email", principal.email());
+                user.put("name", principal.name());
                 
                 response.put("valid", true);
                 response.put("user", user);
-                response.put("remainingTime", remainingTime);
+                response.put("remainingTime", principal.expiresAtMillis() - System.currentTimeMillis());
                 
                 return ResponseEntity.ok(response);
             } else {
@@ -344,6 +339,12 @@ public class AuthController {
         }
     }
     
+    // Check password (either bcrypt or plain text for backward compatibility)
+    private boolean passwordMatches(String rawPassword, String storedPassword) {
+        return storedPassword != null && rawPassword != null &&
+               (passwordEncoder.matches(rawPassword, storedPassword) || rawPassword.equals(storedPassword));
+    }
+    
     @PostMapping("/logout")
     public ResponseEntity<Map<String, Object>> logout(@RequestHeader("Authorization") String authHeader) {
         Map<String, Object> response = new HashMap<>();
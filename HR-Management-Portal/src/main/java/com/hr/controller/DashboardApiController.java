@@ -10,8 +10,10 @@ import org.springframework.web.bind.annotation.*;
 import com.hr.entity.Compose;
 import com.hr.entity.Employee;
 import com.hr.repository.ComposeRepo;
-import com.hr.repository.CreatePostRepo;
 import com.hr.repository.EmployeeRepo;
+import com.hr.service.DashboardService;
+import com.hr.service.DashboardService.DashboardSnapshot;
+import com.hr.service.DepartmentHeadcountService;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -25,7 +27,10 @@ public class DashboardApiController {
     private ComposeRepo composeRepo;
 
     @Autowired
-    private CreatePostRepo createPostRepo;
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DepartmentHeadcountService departmentHeadcountService;
 
     @GetMapping("/test")
     public ResponseEntity<Map<String, Object>> testConnection() {
@@ -41,22 +46,11 @@ public class DashboardApiController {
         Map<String, Integer> stats = new HashMap<>();
         
         try {
-            stats.put("totalEmployees", (int) employeeRepo.count());
+            DashboardSnapshot snapshot = dashboardService.getSnapshot();
+            stats.put("totalEmployees", (int) snapshot.totalEmployees());
             stats.put("activeProjects", 0); // Mock as there's no clear 'active projects' field
-            
-            // Count pending requests manually since countByStatus is not available
-            int pendingCount = 0;
-            try {
-                List<Compose> allCompose = composeRepo.findAll();
-                pendingCount = (int) allCompose.stream()
-                    .filter(c -> "PENDING".equals(c.getStatus()))
-                    .count();
-            } catch (Exception e) {
-                pendingCount = 0;
-            }
-            
-            stats.put("pendingRequests", pendingCount);
-            stats.put("completedTasks", (int) createPostRepo.count()); // Assuming createPost represents tasks
+            stats.put("pendingRequests", (int) snapshot.leaveCount("PENDING"));
+            stats.put("completedTasks", (int) snapshot.totalPosts()); // Assuming createPost represents tasks
         } catch (Exception e) {
             // Return default values if database is not available
             stats.put("totalEmployees", 25);
@@ -68,12 +62,25 @@ public class DashboardApiController {
         return ResponseEntity.ok(stats);
     }
 
+    // Everything the dashboard header needs in one response, served from the cached snapshot
+    @GetMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> getDashboardSnapshot() {
+        DashboardSnapshot snapshot = dashboardService.getSnapshot();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalEmployees", snapshot.totalEmployees());
+        response.put("totalPosts", snapshot.totalPosts());
+        response.put("leaveStatusCounts", snapshot.leaveStatusCounts());
+        response.put("totalLeaveRequests", snapshot.totalLeaveRequests());
+        response.put("generatedAt", new Date(snapshot.takenAtMillis()));
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/department-summary")
     public ResponseEntity<Map<String, Integer>> getDepartmentSummary() {
         try {
-            List<Employee> employees = employeeRepo.findAll();
-
             Map<String, Integer> summary = new HashMap<>();
+            // Departments the dashboard always shows, even when empty
             summary.put("development", 0);
             summary.put("qaTesting", 0);
             summary.put("networking", 0);
@@ -81,19 +88,9 @@ public class DashboardApiController {
             summary.put("security", 0);
             summary.put("sealsMarket", 0);
 
-            for (Employee employee : employees) {
-                String department = employee.getDepartment();
-                if (department != null) {
-                    switch (department.toLowerCase()) {
-                        case "development": summary.put("development", summary.get("development") + 1); break;
-                        case "qa testing": summary.put("qaTesting", summary.get("qaTesting") + 1); break;
-                        case "networking": summary.put("networking", summary.get("networking") + 1); break;
-                        case "hr team": summary.put("hrTeam", summary.get("hrTeam") + 1); break;
-                        case "security": summary.put("security", summary.get("security") + 1); break;
-                        case "seals market": summary.put("sealsMarket", summary.get("sealsMarket") + 1); break;
-                    }
-                }
-            }
+            // Every department present in the data, keyed like "QA Testing" -> "qaTesting"
+            departmentHeadcountService.getCounts().forEach((department, count) ->
+                summary.merge(toSummaryKey(department), count.intValue(), Integer::sum));
             
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
@@ -152,16 +149,16 @@ public class DashboardApiController {
         Map<String, Object> stats = new HashMap<>();
         
         try {
-            List<Compose> allLeaves = composeRepo.findAll();
+            DashboardSnapshot snapshot = dashboardService.getSnapshot();
             
             Map<String, Long> statusCounts = new HashMap<>();
-            statusCounts.put("pending", allLeaves.stream().filter(l -> "PENDING".equals(l.getStatus())).count());
-            statusCounts.put("approved", allLeaves.stream().filter(l -> "APPROVED".equals(l.getStatus())).count());
-            statusCounts.put("denied", allLeaves.stream().filter(l -> "DENIED".equals(l.getStatus())).count());
-            statusCounts.put("canceled", allLeaves.stream().filter(l -> "CANCELED".equals(l.getStatus())).count());
+            statusCounts.put("pending", snapshot.leaveCount("PENDING"));
+            statusCounts.put("approved", snapshot.leaveCount("APPROVED"));
+            statusCounts.put("denied", snapshot.leaveCount("DENIED"));
+            statusCounts.put("canceled", snapshot.leaveCount("CANCELED"));
             
             stats.put("statusCounts", statusCounts);
-            stats.put("totalRequests", allLeaves.size());
+            stats.put("totalRequests", (int) snapshot.totalLeaveRequests());
             
             // Calculate approval rate
             long totalApproved = statusCounts.get("approved");
@@ -223,4 +220,16 @@ public class DashboardApiController {
         
         return ResponseEntity.ok(performance);
     }
+
+    // Convert a department name to the camelCase key used by the dashboard
+    private String toSummaryKey(String department) {
+        String[] words = department.trim().toLowerCase().split("\\s+");
+        StringBuilder key = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            if (!words[i].isEmpty()) {
+                key.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+            }
+        }
+        return key.toString();
+    }
 }
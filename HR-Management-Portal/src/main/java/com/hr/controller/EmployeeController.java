@@ -3,11 +3,16 @@ package com.hr.controller;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 
 import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.pdf.PdfWriter;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,10 +21,13 @@ import org.springframework.web.bind.annotation.*;
 
 import com.hr.dto.EmployeeDTO;
 import com.hr.entity.Employee;
+import com.hr.entity.Payroll;
 import com.hr.repository.EmployeeRepo;
+import com.hr.repository.PayrollRepo;
 import com.hr.service.EmailService;
 import com.hr.service.EmployeeService;
 import com.hr.service.HrService;
+import com.hr.service.PayslipStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -43,6 +51,12 @@ public class EmployeeController {
     
     @Autowired
     private EmployeeService employeeService;
+    
+    @Autowired
+    private PayrollRepo payrollRepo;
+    
+    @Autowired
+    private PayslipStore payslipStore;
 
     @GetMapping
     public ResponseEntity<List<Map<String, Object>>> getAllEmployees() {
@@ -271,10 +285,30 @@ public class EmployeeController {
     }
 
     @GetMapping("/{id}/salary-slip/pdf")
-    public ResponseEntity<byte[]> downloadSalarySlip(@PathVariable int id) {
-        try {
-            Employee employee = employeeRepo.findById(id).orElseThrow(() -> new NoSuchElementException("Employee not found"));
+    public void downloadSalarySlip(@PathVariable int id,
+                                   @RequestParam(required = false) String month,
+                                   @RequestParam(required = false) Integer year,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        Optional<Employee> found = employeeRepo.findById(id);
+        if (found.isEmpty()) {
+            writeBody(response, HttpStatus.NOT_FOUND, "text/plain", "Employee not found".getBytes(), null);
+            return;
+        }
+        Employee employee = found.get();
+        String fileName = "salary_slip_" + employee.getId() + ".pdf";
 
+        // Serve the stored slip of the requested (or latest) payroll; only employees without payroll get the basic slip
+        Optional<Payroll> payroll = month != null && year != null
+                ? Optional.ofNullable(Payroll.periodOf(month, year))
+                        .flatMap(period -> payrollRepo.findByEmployeeIdAndPeriod(id, period))
+                : payrollRepo.findFirstByEmployeeIdOrderByPeriodDesc(id);
+        if (payroll.isPresent() && PayslipResponses.send(payslipStore, payroll.get().getId(), fileName, request, response)) {
+            return;
+        }
+
+        byte[] pdfBytes;
+        try {
             Document document = new Document();
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             PdfWriter.getInstance(document, baos);
@@ -291,19 +325,24 @@ public class EmployeeController {
             document.add(new Paragraph("Net Salary: $" + employee.getSalary())); // Simple calculation for now
             document.close();
 
-            byte[] pdfBytes = baos.toByteArray();
-
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/pdf")
-                    .header("Content-Disposition", "attachment; filename=salary_slip_" + employee.getId() + ".pdf")
-                    .body(pdfBytes);
+            pdfBytes = baos.toByteArray();
+        } catch (DocumentException e) {
+            log.error("Could not generate salary slip for employee {}", id, e);
+            writeBody(response, HttpStatus.INTERNAL_SERVER_ERROR, "text/plain", "Error generating PDF".getBytes(), null);
+            return;
+        }
+        writeBody(response, HttpStatus.OK, "application/pdf", pdfBytes, fileName);
+    }
 
-        } catch (NoSuchElementException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage().getBytes());
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error generating PDF".getBytes());
+    private void writeBody(HttpServletResponse response, HttpStatus status, String contentType, byte[] body,
+                           String attachmentName) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(contentType);
+        if (attachmentName != null) {
+            response.setHeader("Content-Disposition", "attachment; filename=" + attachmentName);
         }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 
     // Helper methods
@@ -7,6 +7,7 @@ import com.hr.entity.LeaveTracker;
 import com.hr.repository.EmployeeRepo;
 import com.hr.repository.PayrollRepo;
 import com.hr.repository.LeaveTrackerRepo;
+import com.hr.service.EmployeeEnrichmentService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -43,6 +45,9 @@ public class ExampleDTOController {
     @Autowired
     private DtoMapper dtoMapper;
 
+    @Autowired
+    private EmployeeEnrichmentService employeeEnrichmentService;
+
     /**
      * Example 1: Get all employees with pagination
      * Returns: ApiResponseDTO<List<EmployeeDTO>> with pagination info
@@ -123,7 +128,7 @@ public class ExampleDTOController {
         
         try {
             // Check if email already exists
-            if (employeeRepo.findByEmail(employeeDTO.getEmail()) != null) {
+            if (employeeRepo.findByEmail(employeeDTO.getEmail()).isPresent()) {
                 ApiResponseDTO<EmployeeDTO> response = ApiResponseDTO
                     .error("Employee with this email already exists");
                 return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
@@ -190,10 +195,11 @@ public class ExampleDTOController {
     public ResponseEntity<ApiResponseDTO<List<PayrollDTO>>> getAllPayrollWithEmployees() {
         try {
             List<Payroll> payrolls = payrollRepo.findAll();
-            List<PayrollDTO> payrollDTOs = payrolls.stream().map(payroll -> {
-                Employee employee = employeeRepo.findById(payroll.getEmployeeId()).orElse(null);
-                return dtoMapper.toPayrollDTOWithEmployee(payroll, employee);
-            }).toList();
+            Map<Integer, Employee> employees = employeeEnrichmentService.loadByIds(
+                payrolls.stream().map(Payroll::getEmployeeId).toList());
+            List<PayrollDTO> payrollDTOs = payrolls.stream()
+                .map(payroll -> dtoMapper.toPayrollDTOWithEmployee(payroll, employees.get(payroll.getEmployeeId())))
+                .toList();
 
             ApiResponseDTO<List<PayrollDTO>> response = ApiResponseDTO
                 .success("Payroll data retrieved successfully", payrollDTOs);
@@ -273,10 +279,11 @@ public class ExampleDTOController {
     public ResponseEntity<ApiResponseDTO<List<LeaveTrackerDTO>>> getLeaveTrackerWithEmployees() {
         try {
             List<LeaveTracker> leaveTrackers = leaveTrackerRepo.findAll();
-            List<LeaveTrackerDTO> leaveTrackerDTOs = leaveTrackers.stream().map(tracker -> {
-                Employee employee = employeeRepo.findById(tracker.getEmployeeId()).orElse(null);
-                return dtoMapper.toLeaveTrackerDTOWithEmployee(tracker, employee);
-            }).toList();
+            Map<Integer, Employee> employees = employeeEnrichmentService.loadByIds(
+                leaveTrackers.stream().map(LeaveTracker::getEmployeeId).toList());
+            List<LeaveTrackerDTO> leaveTrackerDTOs = leaveTrackers.stream()
+                .map(tracker -> dtoMapper.toLeaveTrackerDTOWithEmployee(tracker, employees.get(tracker.getEmployeeId())))
+                .toList();
 
             ApiResponseDTO<List<LeaveTrackerDTO>> response = ApiResponseDTO
                 .success("Leave tracker data retrieved successfully", leaveTrackerDTOs);
@@ -22,6 +22,8 @@ import com.hr.entity.LeaveTracker;
 import com.hr.repository.ComposeRepo;
 import com.hr.repository.CreatePostRepo;
 import com.hr.repository.EmployeeRepo;
+import com.hr.service.DashboardService;
+import com.hr.service.EmployeeEnrichmentService;
 import com.hr.service.HrService;
 import com.hr.service.LeaveService;
 
@@ -46,6 +48,12 @@ public class HrController {
 	
 	@Autowired
 	private LeaveService leaveService;
+	
+	@Autowired
+	private DashboardService dashboardService;
+	
+	@Autowired
+	private EmployeeEnrichmentService employeeEnrichmentService;
 
 	@GetMapping("/login")
 	public String login() {
@@ -82,15 +90,8 @@ public class HrController {
                 
 				else if(employee.getRole().equals("ADMIN")) {
 					List<Compose> findAll = composeRepo.findAll();
-					System.out.println("List"+findAll);
-					findAll.stream()
-					.forEach(k->{
-						int id=k.getParentUkid();
-						String designation = employeeRepo.findById(id).get().getDesignation();
-						
-						k.setPosition(designation);
-						
-					});
+					employeeEnrichmentService.enrich(findAll, Compose::getParentUkid,
+							(k, emp) -> k.setPosition(emp.getDesignation()));
 					
 					model.addAttribute("statusList", findAll);
 					return "dash-board";
@@ -152,15 +153,9 @@ public class HrController {
 	public String status(Model model) {
 		
 		List<Compose> findAll = composeRepo.findAll();
-		System.out.println("List"+findAll);
-		findAll.stream()
-		.forEach(k->{
-			int id=k.getParentUkid();
-			String designation = employeeRepo.findById(id).get().getDesignation();
-			
-			k.setPosition(designation);
-			
-		});
+		// One query for all the employees instead of one per leave request
+		employeeEnrichmentService.enrich(findAll, Compose::getParentUkid,
+				(k, emp) -> k.setPosition(emp.getDesignation()));
 		
 		model.addAttribute("statusList", findAll);
 		
@@ -215,6 +210,7 @@ public class HrController {
 		
 		createPost.setAddedDate(new Date().toString());
 		CreatePost addPost = service.addPost(createPost);
+		dashboardService.invalidate();
 		
 		return "redirect:/create-post";
 		
@@ -286,15 +282,8 @@ public class HrController {
 	   int userId = Integer.parseInt(attribute.toString());
 		
 		List<Compose> findAll = composeRepo.findByParentUkid(userId);
-		System.out.println("List"+findAll);
-		findAll.stream()
-		.forEach(k->{
-			int id=k.getParentUkid();
-			String designation = employeeRepo.findById(id).get().getDesignation();
-			
-			k.setPosition(designation);
-			
-		});
+		employeeEnrichmentService.enrich(findAll, Compose::getParentUkid,
+				(k, emp) -> k.setPosition(emp.getDesignation()));
 		
 		model.addAttribute("statusList", findAll);
 		
@@ -371,6 +360,7 @@ public class HrController {
 			com.setStatus("PENDING");
 			
 			Compose save = composeRepo.save(com);
+			dashboardService.invalidate();
 		} catch (NumberFormatException e) {
 			e.printStackTrace();
 		}
@@ -380,25 +370,17 @@ public class HrController {
 	}
 	
 	@GetMapping("/approve-byId")
-	public String appeove(@RequestParam("id")int id,@RequestParam("type") String type) {
+	public String appeove(@RequestParam("id")int id,@RequestParam("type") String type, Model model) {
 		
 		System.out.println(id+" === "+type);
-		Compose compose = composeRepo.findById(id).get();
-		compose.setStatus(type);
-		
-		// If approved, deduct leaves from user's balance
-		if ("APPROVED".equals(type)) {
-			try {
-				Integer leaveDays = compose.getLeaveDays() != null ? compose.getLeaveDays() : 1;
-				leaveService.deductLeaves(compose.getParentUkid(), leaveDays);
-				System.out.println("Deducted " + leaveDays + " leave days from employee " + compose.getParentUkid());
-			} catch (RuntimeException e) {
-				System.err.println("Error deducting leaves: " + e.getMessage());
-				// Optionally, you could redirect to an error page or show an error message
-			}
+		try {
+			// Approval and deduction commit together; a request that cannot be deducted stays as it was
+			leaveService.updateRequestStatus(id, type).orElseThrow();
+		} catch (IllegalStateException e) {
+			model.addAttribute("error", "Leave request not approved: " + e.getMessage());
+			return status(model);
 		}
-		
-		composeRepo.save(compose);
+		dashboardService.invalidate();
 		
 		return "redirect:/status";
 		
@@ -1,5 +1,8 @@
 package com.hr.controller;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -9,6 +12,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -18,11 +22,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.hr.dto.LeaveAbsenceDTO;
+import com.hr.dto.LeaveHeatmapDTO;
 import com.hr.entity.Compose;
+import com.hr.entity.LeaveLedgerEntry;
 import com.hr.repository.ComposeRepo;
 import com.hr.repository.EmployeeRepo;
+import com.hr.repository.projection.LeaveStatusTotals;
+import com.hr.service.ComposeLeaveService;
+import com.hr.service.DashboardService;
+import com.hr.service.LeaveCalendarService;
 import com.hr.service.LeaveService;
 
 @RestController
@@ -39,6 +51,15 @@ public class LeaveController {
     @Autowired
     private LeaveService leaveService;
 
+    @Autowired
+    private ComposeLeaveService composeLeaveService;
+
+    @Autowired
+    private LeaveCalendarService leaveCalendarService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
     @GetMapping("/requests")
     public ResponseEntity<List<Map<String, Object>>> getAllLeaveRequests() {
         try {
@@ -114,10 +135,12 @@ public class LeaveController {
             textBuilder.append("Reason: ").append(reason != null ? reason : "N/A");
             
             compose.setText(textBuilder.toString());
+            composeLeaveService.applyLeaveDetails(compose, leaveType, fromDate, toDate, leaveDaysObj, reason);
             
             System.out.println("Final leave request text: " + compose.getText());
             
             Compose savedCompose = composeRepo.save(compose);
+            dashboardService.invalidate();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -138,27 +161,19 @@ public class LeaveController {
     @PutMapping("/requests/{id}/status")
     public ResponseEntity<Map<String, Object>> updateLeaveStatus(@PathVariable int id, @RequestBody Map<String, String> statusUpdate) {
         try {
-            Optional<Compose> composeOpt = composeRepo.findById(id);
+            String newStatus = statusUpdate.get("status");
+            Optional<Compose> composeOpt;
+            try {
+                // Approval and deduction commit together; a request that cannot be deducted stays as it was
+                composeOpt = leaveService.updateRequestStatus(id, newStatus);
+            } catch (IllegalStateException e) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "Leave request not approved: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
             if (composeOpt.isPresent()) {
-                Compose compose = composeOpt.get();
-                String newStatus = statusUpdate.get("status");
-                compose.setStatus(newStatus);
-                
-                // If approved, deduct leaves from user's balance
-                if ("APPROVED".equals(newStatus)) {
-                    try {
-                        Integer leaveDays = extractLeaveDaysFromText(compose.getText());
-                        if (leaveDays != null && leaveDays > 0) {
-                            leaveService.deductLeaves(compose.getParentUkid(), leaveDays);
-                            System.out.println("Deducted " + leaveDays + " leave days from employee " + compose.getParentUkid());
-                        }
-                    } catch (RuntimeException e) {
-                        System.err.println("Error deducting leaves: " + e.getMessage());
-                        // Continue with status update even if leave deduction fails
-                    }
-                }
-                
-                composeRepo.save(compose);
+                dashboardService.invalidate();
                 
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
@@ -184,21 +199,19 @@ public class LeaveController {
     @GetMapping("/summary/{employeeId}")
     public ResponseEntity<Map<String, Integer>> getLeaveSummary(@PathVariable int employeeId) {
         try {
-            List<Compose> leaves = composeRepo.findByParentUkid(employeeId);
-
             int pending = 0, approved = 0, canceled = 0, denied = 0, total = 0, used = 0;
-            for (Compose leave : leaves) {
-                String status = leave.getStatus() != null ? leave.getStatus().toUpperCase() : "";
-                Integer days = extractLeaveDaysFromText(leave.getText());
-                if (days == null) days = 0;
+            for (LeaveStatusTotals totals : composeRepo.sumLeaveDaysByStatus(employeeId)) {
+                String status = totals.getStatus() != null ? totals.getStatus() : "";
+                int requests = totals.getRequests().intValue();
+                int days = totals.getLeaveDays().intValue();
                 
                 switch (status) {
-                    case "PENDING": pending += 1; break;
-                    case "APPROVED": approved += 1; used += days; break;
-                    case "CANCELED": canceled += 1; used += days; break;
-                    case "DENIED": denied += 1; used += days; break;
+                    case "PENDING": pending += requests; break;
+                    case "APPROVED": approved += requests; used += days; break;
+                    case "CANCELED": canceled += requests; used += days; break;
+                    case "DENIED": denied += requests; used += days; break;
                 }
-                total += 1;
+                total += requests;
             }
             
             int remaining = Math.max(40 - used, 0); // Assuming 40 days annual leave
@@ -239,13 +252,9 @@ public class LeaveController {
                 balance.put("totalLeaves", leaveTracker.getTotalLeaves());
             } catch (Exception e) {
                 // Fallback to manual calculation
-                List<Compose> leaves = composeRepo.findByParentUkid(employeeId);
-                int usedLeaves = leaves.stream()
-                    .filter(leave -> "APPROVED".equals(leave.getStatus()))
-                    .mapToInt(leave -> {
-                        Integer days = extractLeaveDaysFromText(leave.getText());
-                        return days != null ? days : 0;
-                    })
+                int usedLeaves = composeRepo.sumLeaveDaysByStatus(employeeId).stream()
+                    .filter(totals -> "APPROVED".equals(totals.getStatus()))
+                    .mapToInt(totals -> totals.getLeaveDays().intValue())
                     .sum();
                 
                 balance.put("availableLeaves", Math.max(40 - usedLeaves, 0));
@@ -263,6 +272,55 @@ public class LeaveController {
         }
     }
 
+    // Approved leaves overlapping [from, to] (yyyy-MM-dd), optionally for one department
+    @GetMapping("/calendar/out")
+    public ResponseEntity<?> getWhoIsOut(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         @RequestParam(required = false) String department) {
+        try {
+            List<LeaveAbsenceDTO> out = leaveCalendarService.whoIsOut(from, to, department);
+            return ResponseEntity.ok(out);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Whether anyone (in the department, if given) is on approved leave today
+    @GetMapping("/calendar/today")
+    public ResponseEntity<Map<String, Object>> getAnyoneOutToday(@RequestParam(required = false) String department) {
+        LocalDate today = LocalDate.now();
+        List<String> departments = leaveCalendarService.departmentsOut(today, department);
+        Map<String, Object> response = new HashMap<>();
+        response.put("date", today);
+        response.put("anyoneOut", !departments.isEmpty());
+        response.put("departments", departments);
+        return ResponseEntity.ok(response);
+    }
+
+    // Month grid of people out per day and department, in one compact payload
+    @GetMapping("/calendar/heatmap")
+    public ResponseEntity<LeaveHeatmapDTO> getLeaveHeatmap(@RequestParam(required = false) Integer year,
+                                                           @RequestParam(required = false) Integer month,
+                                                           @RequestParam(required = false) String department) {
+        YearMonth current = YearMonth.now();
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.of(year != null ? year : current.getYear(), month != null ? month : current.getMonthValue());
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(leaveCalendarService.heatmap(yearMonth, department));
+    }
+
+    // Every balance change applied for the employee, newest first
+    @GetMapping("/ledger/{employeeId}")
+    public ResponseEntity<List<LeaveLedgerEntry>> getLeaveLedger(@PathVariable int employeeId) {
+        return ResponseEntity.ok(leaveService.getLedger(employeeId));
+    }
+
     // Helper methods
     private Map<String, Object> convertComposeToMap(Compose compose) {
         Map<String, Object> map = new HashMap<>();
@@ -275,50 +333,22 @@ public class LeaveController {
         map.put("addedDate", compose.getAddedDate());
         map.put("position", compose.getPosition());
         
-        // Extract structured leave information from text
-        if (compose.getText() != null) {
-            Map<String, String> leaveDetails = parseLeaveDetailsFromText(compose.getText());
-            map.putAll(leaveDetails);
-        }
-        
-        return map;
-    }
+        map.put("leaveType", compose.getLeaveType());
+        map.put("fromDate", compose.getFromDate());
+        map.put("toDate", compose.getToDate());
+        map.put("leaveDays", compose.getLeaveDays());
 
-    private Map<String, String> parseLeaveDetailsFromText(String text) {
-        Map<String, String> details = new HashMap<>();
-        if (text == null) return details;
+        // Keys the text used to be parsed into, kept for existing clients
+        map.put("leavetype", display(compose.getLeaveType()));
+        map.put("from", display(compose.getFromDate()));
+        map.put("to", display(compose.getToDate()));
+        map.put("days", String.valueOf(compose.getLeaveDays()));
+        map.put("reason", display(compose.getReason()));
         
-        String[] lines = text.split("\n");
-        for (String line : lines) {
-            if (line.contains(":")) {
-                String[] parts = line.split(":", 2);
-                if (parts.length == 2) {
-                    String key = parts[0].trim().toLowerCase().replaceAll(" ", "");
-                    String value = parts[1].trim();
-                    details.put(key, value);
-                }
-            }
-        }
-        return details;
+        return map;
     }
 
-    private Integer extractLeaveDaysFromText(String text) {
-        if (text == null) return null;
-        
-        try {
-            String[] lines = text.split("\n");
-            for (String line : lines) {
-                if (line.contains("Days:")) {
-                    String[] parts = line.split("Days:");
-                    if (parts.length > 1) {
-                        String daysStr = parts[1].trim().split("\\s+")[0]; // Get first word after "Days:"
-                        return Integer.parseInt(daysStr);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing leave days from text: " + e.getMessage());
-        }
-        return null;
+    private String display(Object value) {
+        return value != null ? value.toString() : "N/A";
     }
 }
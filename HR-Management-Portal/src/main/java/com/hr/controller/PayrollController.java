@@ -1,16 +1,43 @@
 package com.hr.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.hr.dto.PayrollGenerationResult;
+import com.hr.dto.PayrollPage;
+import com.hr.dto.PayrollRuleSetDTO;
+import com.hr.dto.PayrollSimulationRequest;
+import com.hr.dto.PayrollTransitionResult;
 import com.hr.entity.Employee;
 import com.hr.entity.Payroll;
+import com.hr.entity.PayrollRun;
+import com.hr.entity.PayrollYtd;
 import com.hr.repository.EmployeeRepo;
+import com.hr.service.PayrollExportService;
+import com.hr.service.PayrollRuleService;
+import com.hr.service.PayrollRunService;
 import com.hr.service.PayrollService;
+import com.hr.service.PayrollServiceImpl;
+import com.hr.service.PayrollSimulationService;
+import com.hr.service.PayrollYtdService;
+import com.hr.service.PayslipStore;
+import com.hr.service.PayslipZipService;
 
 @RestController
 @RequestMapping("/api/payroll")
@@ -19,10 +46,42 @@ public class PayrollController {
 
     @Autowired
     private PayrollService payrollService;
+
+    @Autowired
+    private PayrollServiceImpl payrollServiceImpl;
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayrollExportService payrollExportService;
+
+    @Autowired
+    private PayslipZipService payslipZipService;
+
+    @Autowired
+    private PayslipStore payslipStore;
+
+    @Autowired
+    private PayrollSimulationService payrollSimulationService;
+
+    @Autowired
+    private PayrollRuleService payrollRuleService;
+
+    @Autowired
+    private PayrollYtdService payrollYtdService;
     
     @Autowired
     private EmployeeRepo employeeRepo;
 
+    // All payrolls, newest period first, one keyset page at a time
+    @GetMapping
+    public ResponseEntity<PayrollPage> getAllPayrolls(@RequestParam(required = false) Integer beforePeriod,
+            @RequestParam(required = false) Integer beforeId,
+            @RequestParam(defaultValue = "${payroll.page.default-size:50}") int limit) {
+        return ResponseEntity.ok(payrollServiceImpl.getAllPayrolls(beforePeriod, beforeId, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Payroll> getPayrollById(@PathVariable Integer id) {
         return payrollService.getPayrollById(id)
@@ -30,9 +89,29 @@ public class PayrollController {
             .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    // One calendar year as a list when year is given, otherwise the whole history in keyset pages
     @GetMapping("/employee/{employeeId}")
-    public ResponseEntity<List<Payroll>> getPayrollsByEmployeeId(@PathVariable Integer employeeId) {
-        return ResponseEntity.ok(payrollService.getPayrollsByEmployeeId(employeeId));
+    public ResponseEntity<?> getPayrollsByEmployeeId(@PathVariable Integer employeeId,
+                                                     @RequestParam(required = false) Integer year,
+                                                     @RequestParam(required = false) Integer beforePeriod,
+                                                     @RequestParam(required = false) Integer beforeId,
+                                                     @RequestParam(defaultValue = "${payroll.page.default-size:50}") int limit) {
+        if (year != null) {
+            return ResponseEntity.ok(payrollService.getPayrollsByEmployeeForYear(employeeId, year));
+        }
+        return ResponseEntity.ok(payrollServiceImpl.getPayrollsByEmployee(employeeId, beforePeriod, beforeId, limit));
+    }
+
+    // Year-to-date totals for a financial year (2025 = April 2025 to March 2026); defaults to the current one
+    @GetMapping("/employee/{employeeId}/ytd")
+    public ResponseEntity<PayrollYtd> getEmployeeYtd(@PathVariable Integer employeeId,
+                                                     @RequestParam(required = false) Integer financialYear) {
+        return ResponseEntity.ok(payrollYtdService.getYtd(employeeId, financialYear));
+    }
+
+    @GetMapping("/employee/{employeeId}/ytd/history")
+    public ResponseEntity<List<PayrollYtd>> getEmployeeYtdHistory(@PathVariable Integer employeeId) {
+        return ResponseEntity.ok(payrollYtdService.getYtdHistory(employeeId));
     }
 
     @GetMapping("/employee/{employeeId}/monthly")
@@ -44,15 +123,8 @@ public class PayrollController {
             // Convert month name to number if needed
             Integer monthNumber = convertMonthToNumber(month);
             
-            // First try to get actual payroll data from the service
-            List<Payroll> payrolls = payrollService.getPayrollsByEmployeeId(employeeId);
-            
-            // Filter by month and year (payroll entities have payrollMonth/payrollYear fields)
-            Payroll monthlyPayroll = payrolls.stream()
-                .filter(p -> p.getPayrollYear() != null && p.getPayrollYear().equals(year) &&
-                            p.getPayrollMonth() != null && 
-                            (Integer.parseInt(p.getPayrollMonth()) == monthNumber || p.getPayrollMonth().equalsIgnoreCase(month)))
-                .findFirst()
+            // First try to get actual payroll data from the service (single seek on employee + period)
+            Payroll monthlyPayroll = payrollService.getPayrollForPeriod(employeeId, year * 100 + monthNumber)
                 .orElse(null);
             
             if (monthlyPayroll != null) {
@@ -87,10 +159,38 @@ public class PayrollController {
     }
 
     @PostMapping("/generate-all")
-    public ResponseEntity<List<Payroll>> generatePayrollForAllEmployees() {
+    public ResponseEntity<PayrollGenerationResult> generatePayrollForAllEmployees() {
         return ResponseEntity.status(HttpStatus.CREATED).body(payrollService.generatePayrollForAllEmployees());
     }
 
+    // Asynchronous payroll runs: submit, then poll the run for progress
+    @PostMapping("/runs")
+    public ResponseEntity<?> submitPayrollRun(@RequestParam(required = false) String month,
+                                              @RequestParam(required = false) Integer year) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(payrollRunService.submit(month, year));
+        } catch (RejectedExecutionException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Too many payroll runs in progress, try again later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<PayrollRun> getPayrollRun(@PathVariable Integer runId) {
+        return payrollRunService.getRun(runId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/runs/{runId}/cancel")
+    public ResponseEntity<PayrollRun> cancelPayrollRun(@PathVariable Integer runId) {
+        return payrollRunService.cancel(runId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/update/{id}")
     public ResponseEntity<Payroll> updatePayroll(@PathVariable Integer id, @RequestBody Payroll payroll) {
         return ResponseEntity.ok(payrollService.updatePayroll(id, payroll));
@@ -117,19 +217,132 @@ public class PayrollController {
         return ResponseEntity.ok(payrollService.getPayrollSummaryWithEmployeeDetails());
     }
 
+    // Month's payroll register for finance, streamed as CSV or NDJSON
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayrollRegister(@RequestParam(required = false) String month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "csv") String format) {
+        PayrollExportService.Format exportFormat;
+        try {
+            exportFormat = PayrollExportService.parseFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String exportMonth = month != null && !month.isBlank() ? month
+            : LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMMM"));
+        Integer exportYear = year != null ? year : LocalDateTime.now().getYear();
+
+        StreamingResponseBody body = out -> payrollExportService.writeRegister(exportMonth, exportYear, exportFormat, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + payrollExportService.fileName(exportMonth, exportYear, exportFormat) + "\"")
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .body(body);
+    }
+
+    // Salary slip of one payroll, rendered once and then served from the payslip store
+    @GetMapping("/{id}/payslip")
+    public void downloadPayslip(@PathVariable Integer id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!PayslipResponses.send(payslipStore, id, "payslip_" + id + ".pdf", request, response)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+        }
+    }
+
+    // Every salary slip of the month in one ZIP, streamed as the slips are rendered
+    @GetMapping("/payslips")
+    public ResponseEntity<StreamingResponseBody> downloadPayslips(@RequestParam(required = false) String month,
+            @RequestParam(required = false) Integer year) {
+        String slipMonth = month != null && !month.isBlank() ? month
+            : LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMMM"));
+        Integer slipYear = year != null ? year : LocalDateTime.now().getYear();
+
+        StreamingResponseBody body = out -> payslipZipService.writeZip(slipMonth, slipYear, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + payslipZipService.fileName(slipMonth, slipYear) + "\"")
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .body(body);
+    }
+
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getPayrollStatistics() {
+    public ResponseEntity<Map<String, Object>> getPayrollStatistics(@RequestParam(required = false) String month,
+            @RequestParam(required = false) Integer year) {
+        if (month != null && year != null) {
+            return ResponseEntity.ok(payrollService.getPayrollStatistics(month, year));
+        }
         return ResponseEntity.ok(payrollService.getPayrollStatistics());
     }
 
+    // Month-by-month statistics from the summary rollup
+    @GetMapping("/statistics/history")
+    public ResponseEntity<List<Map<String, Object>>> getPayrollStatisticsHistory(@RequestParam(required = false) Integer year) {
+        return ResponseEntity.ok(payrollService.getPayrollStatisticsHistory(year));
+    }
+
+    // Payroll rules per financial year (2025 = April 2025 to March 2026)
+    @GetMapping("/rules")
+    public ResponseEntity<List<PayrollRuleSetDTO>> getPayrollRules() {
+        return ResponseEntity.ok(payrollRuleService.getAllRules());
+    }
+
+    @GetMapping("/rules/{financialYear}")
+    public ResponseEntity<PayrollRuleSetDTO> getPayrollRules(@PathVariable Integer financialYear) {
+        return ResponseEntity.ok(payrollRuleService.getRules(financialYear));
+    }
+
+    // Publishes a new version of a year's rules; payrolls calculated afterwards use it
+    @PostMapping("/rules")
+    public ResponseEntity<?> publishPayrollRules(@RequestBody PayrollRuleSetDTO rules) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(payrollRuleService.publish(rules));
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (DataIntegrityViolationException e) {
+            response.put("success", false);
+            response.put("message", "Another version of these rules was published at the same time, try again");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    // What-if payroll under alternative rates; read-only
+    @PostMapping("/simulations")
+    public ResponseEntity<?> simulatePayroll(@RequestBody PayrollSimulationRequest request) {
+        try {
+            return ResponseEntity.ok(payrollSimulationService.simulate(request));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @PostMapping("/approve-all")
-    public ResponseEntity<List<Payroll>> approveAllPayrolls(@RequestParam String month, @RequestParam Integer year) {
-        return ResponseEntity.ok(payrollService.approveAllPayrolls(month, year));
+    public ResponseEntity<PayrollTransitionResult> approveAllPayrolls(@RequestParam String month, @RequestParam Integer year,
+            @RequestParam(defaultValue = "false") boolean includeIds,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(payrollService.approveAllPayrolls(month, year, includeIds, limit));
     }
 
     @PostMapping("/pay-all")
-    public ResponseEntity<List<Payroll>> markAllPayrollsAsPaid(@RequestParam String month, @RequestParam Integer year) {
-        return ResponseEntity.ok(payrollService.markAllPayrollsAsPaid(month, year));
+    public ResponseEntity<PayrollTransitionResult> markAllPayrollsAsPaid(@RequestParam String month, @RequestParam Integer year,
+            @RequestParam(defaultValue = "false") boolean includeIds,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(payrollService.markAllPayrollsAsPaid(month, year, includeIds, limit));
+    }
+
+    // Further pages of the IDs changed by approve-all / pay-all
+    @GetMapping("/status-changes")
+    public ResponseEntity<PayrollTransitionResult> getChangedPayrollIds(@RequestParam String month, @RequestParam Integer year,
+            @RequestParam String status,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedAt,
+            @RequestParam(defaultValue = "0") Integer afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(payrollService.getChangedPayrollIds(month, year, status, changedAt, afterId, limit));
     }
 
     // Helper methods
@@ -175,27 +388,8 @@ public class PayrollController {
     }
 
     private Integer convertMonthToNumber(String month) {
-        try {
-            // If it's already a number, return it
-            return Integer.parseInt(month);
-        } catch (NumberFormatException e) {
-            // Convert month name to number
-            switch (month.toLowerCase()) {
-                case "january": return 1;
-                case "february": return 2;
-                case "march": return 3;
-                case "april": return 4;
-                case "may": return 5;
-                case "june": return 6;
-                case "july": return 7;
-                case "august": return 8;
-                case "september": return 9;
-                case "october": return 10;
-                case "november": return 11;
-                case "december": return 12;
-                default: return 1; // Default to January if unknown
-            }
-        }
+        int monthNumber = Payroll.monthNumber(month);
+        return monthNumber == 0 ? 1 : monthNumber; // Default to January if unknown
     }
 
     private Map<String, Object> generateMockPayrollData(Employee employee, Integer month, Integer year) {
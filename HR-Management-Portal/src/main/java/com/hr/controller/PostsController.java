@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 
 import com.hr.entity.CreatePost;
 import com.hr.repository.CreatePostRepo;
+import com.hr.service.DashboardService;
 import com.hr.service.HrService;
 
 @RestController
@@ -23,6 +24,9 @@ public class PostsController {
     @Autowired
     private HrService service;
 
+    @Autowired
+    private DashboardService dashboardService;
+
     @GetMapping
     public ResponseEntity<List<Map<String, Object>>> getAllPosts() {
         try {
@@ -83,6 +87,7 @@ public class PostsController {
             post.setAddedDate(new Date().toString());
             
             CreatePost savedPost = service.addPost(post);
+            dashboardService.invalidate();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -140,6 +145,7 @@ public class PostsController {
         try {
             if (createPostRepo.existsById(id)) {
                 createPostRepo.deleteById(id);
+                dashboardService.invalidate();
                 
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
@@ -0,0 +1,22 @@
+package com.hr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One approved leave in a "who is on leave" answer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveAbsenceDTO {
+
+    private Integer leaveId;
+    private Integer employeeId;
+    private String department;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+}
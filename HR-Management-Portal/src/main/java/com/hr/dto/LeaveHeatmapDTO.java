@@ -0,0 +1,30 @@
+package com.hr.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Team availability for one month as parallel arrays: departments[i] has
+ * headcount[i] active employees, and out[i][d] of them are on approved leave
+ * on day d + 1 of the month.
+ */
+@Data
+@NoArgsConstructor
+public class LeaveHeatmapDTO {
+
+    private int year;
+    private int month;
+    private int days;
+    private List<String> departments = new ArrayList<>();
+    private List<Long> headcount = new ArrayList<>();
+    private List<int[]> out = new ArrayList<>();
+
+    public LeaveHeatmapDTO(int year, int month, int days) {
+        this.year = year;
+        this.month = month;
+        this.days = days;
+    }
+}
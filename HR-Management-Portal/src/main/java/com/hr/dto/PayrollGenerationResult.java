@@ -0,0 +1,53 @@
+package com.hr.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk payroll generation run for one month.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollGenerationResult {
+
+    private String payrollMonth;
+    private Integer payrollYear;
+
+    // Active employees considered by the run
+    private int eligibleEmployees;
+
+    // Employees that already had a payroll for the month
+    private int skippedExisting;
+
+    private int generated;
+    private int failed;
+
+    // Stopped between chunks on request; rows generated so far are kept
+    private boolean cancelled;
+
+    @Builder.Default
+    private List<Failure> failures = new ArrayList<>();
+
+    private long durationMillis;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime completedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private Integer employeeId;
+        private String employeeName;
+        private String reason;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hr.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of payrolls, newest period first and highest ID first within
+ * a period. Pass nextPeriod and nextId back as beforePeriod and beforeId for
+ * the following page; both are absent on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PayrollPage {
+
+    private List<PayrollResponse> payrolls;
+    private int limit;
+    private Integer nextPeriod;
+    private Integer nextId;
+}
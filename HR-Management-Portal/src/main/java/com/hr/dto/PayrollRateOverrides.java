@@ -0,0 +1,27 @@
+package com.hr.dto;
+
+import java.util.List;
+
+/**
+ * Payroll rates given in a request. A null value keeps the rate it would
+ * otherwise have; a non-null tax slab list replaces all slabs.
+ * Percentages are plain percent (40 = 40%) and amounts are monthly rupees.
+ */
+public interface PayrollRateOverrides {
+
+    Double getHraPercent();
+
+    Double getTransportAllowance();
+
+    Double getMedicalAllowance();
+
+    Double getPfPercent();
+
+    Double getEsiPercent();
+
+    Double getProfessionalTax();
+
+    Double getInsurancePercent();
+
+    List<TaxSlabDTO> getTaxSlabs();
+}
@@ -0,0 +1,38 @@
+package com.hr.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Payroll rules of one financial year (2025 = April 2025 to March 2026).
+ * When publishing, rates left out are taken from the rules currently in effect
+ * for that year.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PayrollRuleSetDTO implements PayrollRateOverrides {
+
+    private Integer financialYear;
+
+    // Set on read: the published version in effect, and the year it was published for
+    // (an earlier one when carried forward); both null for the built-in rates
+    private Integer version;
+    private Integer definedForFinancialYear;
+
+    private Double hraPercent;
+    private Double transportAllowance;
+    private Double medicalAllowance;
+    private Double pfPercent;
+    private Double esiPercent;
+    private Double professionalTax;
+    private Double insurancePercent;
+    private List<TaxSlabDTO> taxSlabs;
+}
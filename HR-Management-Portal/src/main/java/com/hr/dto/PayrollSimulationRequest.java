@@ -0,0 +1,42 @@
+package com.hr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Alternative payroll rules for a what-if simulation.
+ * Every field is optional; anything left out keeps the rule in effect.
+ * Percentages are plain percent (40 = 40%) and amounts are monthly rupees,
+ * except tax slab floors, which are annual.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollSimulationRequest implements PayrollRateOverrides {
+
+    // Financial year whose rules are the starting point; defaults to the current one
+    private Integer financialYear;
+
+    private Double hraPercent;
+    private Double transportAllowance;
+    private Double medicalAllowance;
+    private Double pfPercent;
+    private Double esiPercent;
+    private Double professionalTax;
+    private Double insurancePercent;
+
+    // Replaces all current slabs when present
+    private List<TaxSlabDTO> taxSlabs;
+
+    // Only simulate one department
+    private String department;
+
+    // Employees with the largest net change to list individually
+    @Builder.Default
+    private Integer maxEmployees = 100;
+}
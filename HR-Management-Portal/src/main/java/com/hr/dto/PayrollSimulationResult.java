@@ -0,0 +1,72 @@
+package com.hr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Current versus simulated monthly payroll for the organisation, each
+ * department and the most affected employees. Nothing is persisted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollSimulationResult {
+
+    private int employees;
+
+    // Employees whose net salary changes
+    private int affectedEmployees;
+
+    private Amounts current;
+    private Amounts simulated;
+    private Amounts delta;
+
+    @Builder.Default
+    private List<DepartmentDelta> departments = new ArrayList<>();
+
+    // Largest absolute net changes first, up to maxEmployees
+    @Builder.Default
+    private List<EmployeeDelta> employeeDeltas = new ArrayList<>();
+
+    private long durationMillis;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Amounts {
+        private double grossSalary;
+        private double totalDeductions;
+        private double incomeTax;
+        private double netSalary;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DepartmentDelta {
+        private String department;
+        private int employees;
+        private Amounts current;
+        private Amounts simulated;
+        private Amounts delta;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EmployeeDelta {
+        private Integer employeeId;
+        private String employeeName;
+        private String department;
+        private double currentNet;
+        private double simulatedNet;
+        private double netDelta;
+        private double incomeTaxDelta;
+    }
+}
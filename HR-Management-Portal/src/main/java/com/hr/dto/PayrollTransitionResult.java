@@ -0,0 +1,32 @@
+package com.hr.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of a bulk payroll status change (approve-all, pay-all).
+ * changedAt identifies the rows touched by this change; changedIds holds one
+ * keyset page of them when requested, continued from nextAfterId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PayrollTransitionResult {
+
+    private String payrollMonth;
+    private Integer payrollYear;
+    private String fromStatus;
+    private String toStatus;
+    private int updated;
+    private LocalDateTime changedAt;
+    private List<Integer> changedIds;
+    private Integer nextAfterId;
+}
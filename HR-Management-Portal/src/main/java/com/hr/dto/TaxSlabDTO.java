@@ -0,0 +1,17 @@
+package com.hr.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Income tax slab: ratePercent applies to annual income above {@code from}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxSlabDTO {
+
+    private Double from;
+    private Double ratePercent;
+}
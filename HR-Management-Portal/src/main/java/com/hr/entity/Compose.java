@@ -1,5 +1,6 @@
 package com.hr.entity;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,10 +11,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 
-@Table(name="COMPOSE")
+@Table(name="COMPOSE", indexes = {
+		@Index(name = "IDX_COMPOSE_STATUS", columnList = "status"),
+		@Index(name = "IDX_COMPOSE_PARENT_UKID_STATUS", columnList = "parentUkid, status"),
+		@Index(name = "IDX_COMPOSE_FROM_DATE", columnList = "fromDate")
+})
 @Entity
 public class Compose {
 
@@ -36,6 +42,17 @@ public class Compose {
 	
 	private Integer leaveDays = 1; // Number of days requested for leave
 	
+	// Leave details stored at write time; TEXT keeps the same details for display
+	@Column(length = 50)
+	private String leaveType;
+	
+	private LocalDate fromDate;
+	
+	private LocalDate toDate;
+	
+	@Column(length = 1000)
+	private String reason;
+	
 	// Additional fields for compatibility with ComposeDTO
 	private Integer senderId;
 	private Integer recipientId;
@@ -143,6 +160,38 @@ public class Compose {
 		this.leaveDays = leaveDays;
 	}
 	
+	public String getLeaveType() {
+		return leaveType;
+	}
+
+	public void setLeaveType(String leaveType) {
+		this.leaveType = leaveType;
+	}
+
+	public LocalDate getFromDate() {
+		return fromDate;
+	}
+
+	public void setFromDate(LocalDate fromDate) {
+		this.fromDate = fromDate;
+	}
+
+	public LocalDate getToDate() {
+		return toDate;
+	}
+
+	public void setToDate(LocalDate toDate) {
+		this.toDate = toDate;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public void setReason(String reason) {
+		this.reason = reason;
+	}
+	
 	public Integer getSenderId() {
 		return senderId;
 	}
@@ -10,18 +10,23 @@ import org.springframework.data.annotation.LastModifiedDate;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+import com.hr.security.EmployeeCacheListener;
+
 @Entity
-@Table(name="EMPLOYEE")
+@Table(name="EMPLOYEE", uniqueConstraints = @UniqueConstraint(name = "UK_EMPLOYEE_EMAIL", columnNames = "email"))
+@EntityListeners(EmployeeCacheListener.class)
 public class Employee {
 
 	@Id
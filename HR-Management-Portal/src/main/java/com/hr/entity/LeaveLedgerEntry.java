@@ -0,0 +1,74 @@
+package com.hr.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change to an employee's leave balance, caused by one leave request
+ * (COMPOSE). Rows are only ever inserted; the unique key on the leave request
+ * and entry type means each request is applied to the balance at most once.
+ */
+@Entity
+@Table(name = "LEAVE_LEDGER", uniqueConstraints = @UniqueConstraint(name = "UK_LEAVE_LEDGER_COMPOSE_TYPE",
+        columnNames = {"COMPOSE_ID", "ENTRY_TYPE"}),
+        indexes = @Index(name = "IDX_LEAVE_LEDGER_EMPLOYEE_ID", columnList = "EMPLOYEE_ID"))
+public class LeaveLedgerEntry {
+
+    public static final String DEDUCTION = "DEDUCTION";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "COMPOSE_ID", nullable = false)
+    private Integer composeId;
+
+    @Column(name = "ENTRY_TYPE", nullable = false, length = 20)
+    private String entryType;
+
+    @Column(name = "EMPLOYEE_ID", nullable = false)
+    private Integer employeeId;
+
+    @Column(name = "TRACKER_ID")
+    private Integer trackerId;
+
+    @Column(name = "DAYS", nullable = false)
+    private Integer days;
+
+    @CreationTimestamp
+    private LocalDateTime createdDate;
+
+    public LeaveLedgerEntry() {
+        super();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getComposeId() {
+        return composeId;
+    }
+
+    public String getEntryType() {
+        return entryType;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public Integer getTrackerId() {
+        return trackerId;
+    }
+
+    public Integer getDays() {
+        return days;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+}
@@ -1,10 +1,14 @@
 package com.hr.entity;
 
 import jakarta.persistence.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 
 @Entity
-@Table(name="LEAVE_TRACKER")
+@Table(name="LEAVE_TRACKER",
+        uniqueConstraints = @UniqueConstraint(name = "UK_LEAVE_TRACKER_EMPLOYEE_YEAR", columnNames = {"employee_id", "LEAVE_YEAR"}),
+        indexes = @Index(name = "IDX_LEAVE_TRACKER_START_END", columnList = "START_DATE, END_DATE"))
 public class LeaveTracker {
 
     @Id
@@ -17,11 +21,22 @@ public class LeaveTracker {
     
     private Integer usedLeaves = 0;
     
+    // Calendar year of a balance tracker (one per employee and year); empty on leave entries
+    @Column(name = "LEAVE_YEAR")
+    private Integer leaveYear;
+    
     // Additional fields for leave tracking functionality
     private String fromDate;
     
     private String toDate;
     
+    // Typed copies of fromDate/toDate (yyyy-MM-dd), kept in step by the setters, for date-range queries
+    @Column(name = "START_DATE")
+    private LocalDate startDate;
+    
+    @Column(name = "END_DATE")
+    private LocalDate endDate;
+    
     private Integer numberOfDays;
     
     private String leaveType;
@@ -77,6 +92,14 @@ public class LeaveTracker {
         this.usedLeaves = usedLeaves;
     }
 
+    public Integer getLeaveYear() {
+        return leaveYear;
+    }
+
+    public void setLeaveYear(Integer leaveYear) {
+        this.leaveYear = leaveYear;
+    }
+
     public Integer getAvailableLeaves() {
         return totalLeaves - usedLeaves;
     }
@@ -87,6 +110,7 @@ public class LeaveTracker {
 
     public void setFromDate(String fromDate) {
         this.fromDate = fromDate;
+        this.startDate = parseDate(fromDate);
     }
 
     public String getToDate() {
@@ -95,6 +119,33 @@ public class LeaveTracker {
 
     public void setToDate(String toDate) {
         this.toDate = toDate;
+        this.endDate = parseDate(toDate);
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    // Also fills the typed dates of rows written before they existed
+    @PrePersist
+    public void syncDates() {
+        this.startDate = parseDate(fromDate);
+        this.endDate = parseDate(toDate);
+    }
+
+    private static LocalDate parseDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 
     public Integer getNumberOfDays() {
@@ -164,5 +215,6 @@ public class LeaveTracker {
     @PreUpdate
     public void preUpdate() {
         this.updatedDate = LocalDateTime.now();
+        syncDates();
     }
 }
@@ -1,16 +1,41 @@
 package com.hr.entity;
 
+import com.hr.payroll.PayrollBatch;
+import com.hr.payroll.PayrollEngine;
+import com.hr.payroll.PayrollRuleBook;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 @Entity
-@Table(name = "PAYROLL")
+@Table(name = "PAYROLL", uniqueConstraints = @UniqueConstraint(name = "UK_PAYROLL_EMPLOYEE_PERIOD",
+        columnNames = {"EMPLOYEE_ID", "PERIOD"}),
+        indexes = @Index(name = "IDX_PAYROLL_PERIOD", columnList = "PERIOD"))
 public class Payroll {
 
+    // Month names (English and default locale, full and short) to month number
+    private static final Map<String, Integer> MONTH_NUMBERS = new HashMap<>();
+
+    // Single-row batch reused by calculatePayroll, so setter recalculations do not allocate
+    private static final ThreadLocal<PayrollBatch> SINGLE_ROW = ThreadLocal.withInitial(() -> new PayrollBatch(1));
+
+    static {
+        for (Month m : Month.values()) {
+            for (Locale locale : new Locale[] {Locale.ENGLISH, Locale.getDefault()}) {
+                MONTH_NUMBERS.put(m.getDisplayName(TextStyle.FULL, locale).toLowerCase(Locale.ROOT), m.getValue());
+                MONTH_NUMBERS.put(m.getDisplayName(TextStyle.SHORT, locale).toLowerCase(Locale.ROOT), m.getValue());
+            }
+        }
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -68,6 +93,10 @@ public class Payroll {
     @Column(name = "PAYROLL_YEAR")
     private Integer payrollYear;
 
+    // Numeric yyyyMM key derived from payrollMonth/payrollYear, so period lookups sort and range correctly
+    @Column(name = "PERIOD")
+    private Integer period;
+
     @Column(name = "WORKING_DAYS")
     private Integer workingDays = 22;
 
@@ -80,6 +109,10 @@ public class Payroll {
     @Column(name = "STATUS")
     private String status = "DRAFT"; // DRAFT, APPROVED, PAID
 
+    // Employee's department when the payroll was generated (keeps PAYROLL_SUMMARY stable across transfers)
+    @Column(name = "DEPARTMENT")
+    private String department;
+
     @CreationTimestamp
     private LocalDateTime createdDate;
 
@@ -96,52 +129,77 @@ public class Payroll {
         this.basicSalary = basicSalary;
         this.payrollMonth = payrollMonth;
         this.payrollYear = payrollYear;
+        syncPeriod();
         calculatePayroll();
     }
 
-    // Calculate payroll automatically
+    // Generated DRAFT payroll without a calculation; the caller fills the amounts through applyCalculation
+    public static Payroll draft(Integer employeeId, Double basicSalary, String payrollMonth, Integer payrollYear,
+                                String department, LocalDateTime now) {
+        Payroll payroll = new Payroll();
+        payroll.employeeId = employeeId;
+        payroll.basicSalary = basicSalary;
+        payroll.payrollMonth = payrollMonth;
+        payroll.payrollYear = payrollYear;
+        payroll.department = department;
+        payroll.createdDate = now;
+        payroll.updatedDate = now;
+        payroll.syncPeriod();
+        return payroll;
+    }
+
+    // yyyyMM for a month name (or number) and year; null when the month is not recognised
+    public static Integer periodOf(String month, Integer year) {
+        int monthNumber = monthNumber(month);
+        return monthNumber == 0 || year == null ? null : year * 100 + monthNumber;
+    }
+
+    // 1-12 for "October", "Oct", "OCTOBER" or "10"; 0 when the month is not recognised
+    public static int monthNumber(String month) {
+        if (month == null || month.isBlank()) {
+            return 0;
+        }
+        String value = month.trim();
+        if (value.chars().allMatch(Character::isDigit)) {
+            int number = value.length() <= 2 ? Integer.parseInt(value) : 0;
+            return number >= 1 && number <= 12 ? number : 0;
+        }
+        Integer number = MONTH_NUMBERS.get(value.toLowerCase(Locale.ROOT));
+        return number != null ? number : 0;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncPeriod() {
+        this.period = periodOf(payrollMonth, payrollYear);
+    }
+
+    // Calculate payroll automatically with the rules of the payroll's financial year (see PayrollRuleBook)
     public void calculatePayroll() {
         if (basicSalary != null && basicSalary > 0) {
-            // Calculate allowances
-            this.hra = basicSalary * 0.40; // 40% HRA
-            this.transportAllowance = 2000.0; // Fixed transport allowance
-            this.medicalAllowance = 1500.0; // Fixed medical allowance
-            
-            // Calculate gross salary
-            this.grossSalary = basicSalary + hra + transportAllowance + medicalAllowance + otherAllowances;
-            
-            // Calculate deductions
-            this.pfDeduction = grossSalary * 0.12; // 12% PF
-            this.esiDeduction = grossSalary * 0.0175; // 1.75% ESI
-            this.professionalTax = 200.0; // Fixed professional tax
-            this.insuranceDeduction = grossSalary * 0.02; // 2% insurance
-            
-            // Calculate income tax (simplified progressive tax)
-            this.incomeTax = calculateIncomeTax(grossSalary * 12); // Annual salary
-            
-            // Total deductions
-            this.totalDeductions = pfDeduction + esiDeduction + professionalTax + 
-                                 incomeTax + insuranceDeduction + otherDeductions;
-            
-            // Net salary with attendance adjustment
-            double attendanceRatio = (double) presentDays / workingDays;
-            this.netSalary = (grossSalary - totalDeductions) * attendanceRatio;
+            PayrollBatch batch = SINGLE_ROW.get();
+            batch.clear();
+            int working = workingDays != null ? workingDays : 0;
+            batch.add(PayrollEngine.toPaise(basicSalary), PayrollEngine.toPaise(otherAllowances),
+                    PayrollEngine.toPaise(otherDeductions), working, presentDays != null ? presentDays : working);
+            PayrollRuleBook.current().engineFor(period).calculate(batch);
+            applyCalculation(batch, 0);
         }
     }
 
-    private Double calculateIncomeTax(Double annualSalary) {
-        // Simplified income tax calculation (Indian tax slabs)
-        double tax = 0.0;
-        if (annualSalary > 250000) {
-            if (annualSalary <= 500000) {
-                tax = (annualSalary - 250000) * 0.05;
-            } else if (annualSalary <= 1000000) {
-                tax = 12500 + (annualSalary - 500000) * 0.20;
-            } else {
-                tax = 112500 + (annualSalary - 1000000) * 0.30;
-            }
-        }
-        return tax / 12; // Monthly tax
+    // Copy one calculated row of a batch onto this payroll
+    public void applyCalculation(PayrollBatch batch, int row) {
+        this.hra = PayrollEngine.toRupees(batch.getHra(row));
+        this.transportAllowance = PayrollEngine.toRupees(batch.getTransportAllowance(row));
+        this.medicalAllowance = PayrollEngine.toRupees(batch.getMedicalAllowance(row));
+        this.grossSalary = PayrollEngine.toRupees(batch.getGrossSalary(row));
+        this.pfDeduction = PayrollEngine.toRupees(batch.getPfDeduction(row));
+        this.esiDeduction = PayrollEngine.toRupees(batch.getEsiDeduction(row));
+        this.professionalTax = PayrollEngine.toRupees(batch.getProfessionalTax(row));
+        this.insuranceDeduction = PayrollEngine.toRupees(batch.getInsuranceDeduction(row));
+        this.incomeTax = PayrollEngine.toRupees(batch.getIncomeTax(row));
+        this.totalDeductions = PayrollEngine.toRupees(batch.getTotalDeductions(row));
+        this.netSalary = PayrollEngine.toRupees(batch.getNetSalary(row));
     }
 
     // Getters and Setters
@@ -280,6 +338,7 @@ public class Payroll {
 
     public void setPayrollMonth(String payrollMonth) {
         this.payrollMonth = payrollMonth;
+        syncPeriod();
     }
 
     public Integer getPayrollYear() {
@@ -288,6 +347,11 @@ public class Payroll {
 
     public void setPayrollYear(Integer payrollYear) {
         this.payrollYear = payrollYear;
+        syncPeriod();
+    }
+
+    public Integer getPeriod() {
+        return period;
     }
 
     public Integer getWorkingDays() {
@@ -323,6 +387,14 @@ public class Payroll {
         this.status = status;
     }
 
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
     public LocalDateTime getCreatedDate() {
         return createdDate;
     }
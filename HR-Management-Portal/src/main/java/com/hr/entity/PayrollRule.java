@@ -0,0 +1,127 @@
+package com.hr.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One payroll rule of a financial year's rule set.
+ * Rule sets are versioned and never edited: publishing writes a complete new
+ * version, and the highest version of a financial year is the one in effect.
+ * Percentages are plain percent, amounts are monthly rupees, and TAX_SLAB rows
+ * carry the annual income above which their rate applies.
+ */
+@Entity
+@Table(name = "PAYROLL_RULE", uniqueConstraints = @UniqueConstraint(name = "UK_PAYROLL_RULE",
+        columnNames = {"FINANCIAL_YEAR", "VERSION", "RULE_TYPE", "THRESHOLD"}))
+public class PayrollRule {
+
+    public static final String HRA_PERCENT = "HRA_PERCENT";
+    public static final String TRANSPORT_ALLOWANCE = "TRANSPORT_ALLOWANCE";
+    public static final String MEDICAL_ALLOWANCE = "MEDICAL_ALLOWANCE";
+    public static final String PF_PERCENT = "PF_PERCENT";
+    public static final String ESI_PERCENT = "ESI_PERCENT";
+    public static final String PROFESSIONAL_TAX = "PROFESSIONAL_TAX";
+    public static final String INSURANCE_PERCENT = "INSURANCE_PERCENT";
+    public static final String TAX_SLAB = "TAX_SLAB";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // First calendar year of the financial year (2025 = April 2025 to March 2026)
+    @Column(name = "FINANCIAL_YEAR", nullable = false)
+    private Integer financialYear;
+
+    @Column(name = "VERSION", nullable = false)
+    private Integer version;
+
+    @Column(name = "RULE_TYPE", nullable = false, length = 32)
+    private String ruleType;
+
+    // Annual income floor for TAX_SLAB rows, 0 for the others
+    @Column(name = "THRESHOLD", nullable = false)
+    private Double threshold = 0.0;
+
+    @Column(name = "RULE_VALUE", nullable = false)
+    private Double ruleValue;
+
+    @CreationTimestamp
+    private LocalDateTime createdDate;
+
+    public PayrollRule() {
+        super();
+    }
+
+    public PayrollRule(Integer financialYear, Integer version, String ruleType, Double threshold, Double ruleValue) {
+        this.financialYear = financialYear;
+        this.version = version;
+        this.ruleType = ruleType;
+        this.threshold = threshold;
+        this.ruleValue = ruleValue;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getFinancialYear() {
+        return financialYear;
+    }
+
+    public void setFinancialYear(Integer financialYear) {
+        this.financialYear = financialYear;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public String getRuleType() {
+        return ruleType;
+    }
+
+    public void setRuleType(String ruleType) {
+        this.ruleType = ruleType;
+    }
+
+    public Double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Double threshold) {
+        this.threshold = threshold;
+    }
+
+    public Double getRuleValue() {
+        return ruleValue;
+    }
+
+    public void setRuleValue(Double ruleValue) {
+        this.ruleValue = ruleValue;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRule [financialYear=" + financialYear + ", version=" + version + ", ruleType=" + ruleType
+                + ", threshold=" + threshold + ", ruleValue=" + ruleValue + "]";
+    }
+}
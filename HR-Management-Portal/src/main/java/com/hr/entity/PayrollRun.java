@@ -0,0 +1,237 @@
+package com.hr.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persistent state of an asynchronous month-end payroll generation run.
+ * Progress is written after every committed chunk so any node can report it
+ * and resume the run if the node executing it goes away.
+ */
+@Entity
+@Table(name = "PAYROLL_RUN", indexes = @Index(name = "IDX_PAYROLL_RUN_STATUS", columnList = "STATUS"),
+        uniqueConstraints = @UniqueConstraint(name = "UK_PAYROLL_RUN_ACTIVE_KEY", columnNames = "ACTIVE_KEY"))
+public class PayrollRun {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "PAYROLL_MONTH")
+    private String payrollMonth;
+
+    @Column(name = "PAYROLL_YEAR")
+    private Integer payrollYear;
+
+    @Column(name = "STATUS")
+    private String status = QUEUED; // QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+
+    // Month key while the run is QUEUED or RUNNING and NULL after, so the database allows one active run per month
+    @Column(name = "ACTIVE_KEY")
+    private String activeKey;
+
+    @Column(name = "TOTAL_EMPLOYEES")
+    private Integer totalEmployees = 0;
+
+    @Column(name = "PROCESSED_EMPLOYEES")
+    private Integer processedEmployees = 0;
+
+    @Column(name = "GENERATED_COUNT")
+    private Integer generatedCount = 0;
+
+    @Column(name = "SKIPPED_EXISTING")
+    private Integer skippedExisting = 0;
+
+    @Column(name = "FAILED_COUNT")
+    private Integer failedCount = 0;
+
+    @Column(name = "CANCEL_REQUESTED")
+    private boolean cancelRequested = false;
+
+    @Column(name = "FAILURE_DETAILS", length = 4000)
+    private String failureDetails;
+
+    @CreationTimestamp
+    @Column(name = "SUBMITTED_AT")
+    private LocalDateTime submittedAt;
+
+    @Column(name = "STARTED_AT")
+    private LocalDateTime startedAt;
+
+    @Column(name = "HEARTBEAT_AT")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "FINISHED_AT")
+    private LocalDateTime finishedAt;
+
+    public PayrollRun() {
+        super();
+    }
+
+    public PayrollRun(String payrollMonth, Integer payrollYear) {
+        this.payrollMonth = payrollMonth;
+        this.payrollYear = payrollYear;
+    }
+
+    // The yyyyMM period, or the month and year as given when the month is not recognised
+    public static String activeKeyOf(String payrollMonth, Integer payrollYear) {
+        Integer period = Payroll.periodOf(payrollMonth, payrollYear);
+        return period != null ? period.toString() : payrollMonth + " " + payrollYear;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncActiveKey() {
+        this.activeKey = isActive() ? activeKeyOf(payrollMonth, payrollYear) : null;
+    }
+
+    public boolean isActive() {
+        return QUEUED.equals(status) || RUNNING.equals(status);
+    }
+
+    public int getProgressPercent() {
+        if (totalEmployees == null || totalEmployees == 0) {
+            return COMPLETED.equals(status) ? 100 : 0;
+        }
+        return (int) (processedEmployees * 100L / totalEmployees);
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getPayrollMonth() {
+        return payrollMonth;
+    }
+
+    public void setPayrollMonth(String payrollMonth) {
+        this.payrollMonth = payrollMonth;
+    }
+
+    public Integer getPayrollYear() {
+        return payrollYear;
+    }
+
+    public void setPayrollYear(Integer payrollYear) {
+        this.payrollYear = payrollYear;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getActiveKey() {
+        return activeKey;
+    }
+
+    public Integer getTotalEmployees() {
+        return totalEmployees;
+    }
+
+    public void setTotalEmployees(Integer totalEmployees) {
+        this.totalEmployees = totalEmployees;
+    }
+
+    public Integer getProcessedEmployees() {
+        return processedEmployees;
+    }
+
+    public void setProcessedEmployees(Integer processedEmployees) {
+        this.processedEmployees = processedEmployees;
+    }
+
+    public Integer getGeneratedCount() {
+        return generatedCount;
+    }
+
+    public void setGeneratedCount(Integer generatedCount) {
+        this.generatedCount = generatedCount;
+    }
+
+    public Integer getSkippedExisting() {
+        return skippedExisting;
+    }
+
+    public void setSkippedExisting(Integer skippedExisting) {
+        this.skippedExisting = skippedExisting;
+    }
+
+    public Integer getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Integer failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    public String getFailureDetails() {
+        return failureDetails;
+    }
+
+    public void setFailureDetails(String failureDetails) {
+        this.failureDetails = failureDetails;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRun [id=" + id + ", payrollMonth=" + payrollMonth + ", payrollYear=" + payrollYear
+                + ", status=" + status + ", processedEmployees=" + processedEmployees + "/" + totalEmployees + "]";
+    }
+}
@@ -0,0 +1,115 @@
+package com.hr.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Running totals of payrolls per (yyyyMM period, status, department), so every
+ * spelling of a month shares its buckets. Maintained by PayrollSummaryService
+ * on every payroll write so statistics never have to scan PAYROLL.
+ */
+@Entity
+@Table(name = "PAYROLL_SUMMARY", uniqueConstraints = @UniqueConstraint(name = "UK_PAYROLL_SUMMARY_KEY",
+        columnNames = {"PERIOD", "STATUS", "DEPARTMENT"}))
+public class PayrollSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "PERIOD", nullable = false)
+    private Integer period;
+
+    @Column(name = "STATUS", nullable = false)
+    private String status;
+
+    @Column(name = "DEPARTMENT", nullable = false)
+    private String department;
+
+    @Column(name = "PAYROLL_COUNT")
+    private long payrollCount = 0;
+
+    @Column(name = "TOTAL_GROSS")
+    private double totalGross = 0.0;
+
+    @Column(name = "TOTAL_NET")
+    private double totalNet = 0.0;
+
+    public PayrollSummary() {
+        super();
+    }
+
+    public PayrollSummary(Integer period, String status, String department) {
+        this.period = period;
+        this.status = status;
+        this.department = department;
+    }
+
+    public void add(long count, double gross, double net) {
+        this.payrollCount += count;
+        this.totalGross += gross;
+        this.totalNet += net;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(Integer period) {
+        this.period = period;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public long getPayrollCount() {
+        return payrollCount;
+    }
+
+    public void setPayrollCount(long payrollCount) {
+        this.payrollCount = payrollCount;
+    }
+
+    public double getTotalGross() {
+        return totalGross;
+    }
+
+    public void setTotalGross(double totalGross) {
+        this.totalGross = totalGross;
+    }
+
+    public double getTotalNet() {
+        return totalNet;
+    }
+
+    public void setTotalNet(double totalNet) {
+        this.totalNet = totalNet;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollSummary [period=" + period + ", status=" + status
+                + ", department=" + department + ", payrollCount=" + payrollCount + ", totalNet=" + totalNet + "]";
+    }
+}
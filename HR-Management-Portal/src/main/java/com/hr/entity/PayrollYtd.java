@@ -0,0 +1,180 @@
+package com.hr.entity;
+
+import com.hr.payroll.PayrollEngine;
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Year-to-date payroll totals of one employee for one financial year
+ * (2025 = April 2025 to March 2026), over the employee's APPROVED and PAID
+ * payrolls in that year; drafts can still change and do not count.
+ * Maintained by PayrollYtdService on every payroll write.
+ */
+@Entity
+@Table(name = "PAYROLL_YTD", uniqueConstraints = @UniqueConstraint(name = "UK_PAYROLL_YTD_EMPLOYEE_YEAR",
+        columnNames = {"EMPLOYEE_ID", "FINANCIAL_YEAR"}))
+public class PayrollYtd {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "EMPLOYEE_ID", nullable = false)
+    private Integer employeeId;
+
+    @Column(name = "FINANCIAL_YEAR", nullable = false)
+    private Integer financialYear;
+
+    @Column(name = "PAYROLL_COUNT")
+    private long payrollCount = 0;
+
+    // Amounts in paise, so repeated increments add up exactly
+    @Column(name = "GROSS_SALARY_PAISE")
+    private long grossSalaryPaise = 0;
+
+    @Column(name = "INCOME_TAX_PAISE")
+    private long incomeTaxPaise = 0;
+
+    @Column(name = "PF_DEDUCTION_PAISE")
+    private long pfDeductionPaise = 0;
+
+    @Column(name = "ESI_DEDUCTION_PAISE")
+    private long esiDeductionPaise = 0;
+
+    @Column(name = "PROFESSIONAL_TAX_PAISE")
+    private long professionalTaxPaise = 0;
+
+    @Column(name = "TOTAL_DEDUCTIONS_PAISE")
+    private long totalDeductionsPaise = 0;
+
+    @Column(name = "NET_SALARY_PAISE")
+    private long netSalaryPaise = 0;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedDate;
+
+    public PayrollYtd() {
+        super();
+    }
+
+    public PayrollYtd(Integer employeeId, Integer financialYear) {
+        this.employeeId = employeeId;
+        this.financialYear = financialYear;
+    }
+
+    public void add(long count, long gross, long tax, long pf, long esi, long pt, long deductions, long net) {
+        this.payrollCount += count;
+        this.grossSalaryPaise += gross;
+        this.incomeTaxPaise += tax;
+        this.pfDeductionPaise += pf;
+        this.esiDeductionPaise += esi;
+        this.professionalTaxPaise += pt;
+        this.totalDeductionsPaise += deductions;
+        this.netSalaryPaise += net;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Integer employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public Integer getFinancialYear() {
+        return financialYear;
+    }
+
+    public void setFinancialYear(Integer financialYear) {
+        this.financialYear = financialYear;
+    }
+
+    public long getPayrollCount() {
+        return payrollCount;
+    }
+
+    public void setPayrollCount(long payrollCount) {
+        this.payrollCount = payrollCount;
+    }
+
+    public long getGrossSalaryPaise() {
+        return grossSalaryPaise;
+    }
+
+    public double getGrossSalary() {
+        return PayrollEngine.toRupees(grossSalaryPaise);
+    }
+
+    public long getIncomeTaxPaise() {
+        return incomeTaxPaise;
+    }
+
+    public double getIncomeTax() {
+        return PayrollEngine.toRupees(incomeTaxPaise);
+    }
+
+    public long getPfDeductionPaise() {
+        return pfDeductionPaise;
+    }
+
+    public double getPfDeduction() {
+        return PayrollEngine.toRupees(pfDeductionPaise);
+    }
+
+    public long getEsiDeductionPaise() {
+        return esiDeductionPaise;
+    }
+
+    public double getEsiDeduction() {
+        return PayrollEngine.toRupees(esiDeductionPaise);
+    }
+
+    public long getProfessionalTaxPaise() {
+        return professionalTaxPaise;
+    }
+
+    public double getProfessionalTax() {
+        return PayrollEngine.toRupees(professionalTaxPaise);
+    }
+
+    public long getTotalDeductionsPaise() {
+        return totalDeductionsPaise;
+    }
+
+    public double getTotalDeductions() {
+        return PayrollEngine.toRupees(totalDeductionsPaise);
+    }
+
+    public long getNetSalaryPaise() {
+        return netSalaryPaise;
+    }
+
+    public double getNetSalary() {
+        return PayrollEngine.toRupees(netSalaryPaise);
+    }
+
+    public LocalDateTime getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(LocalDateTime updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollYtd [employeeId=" + employeeId + ", financialYear=" + financialYear + ", payrollCount="
+                + payrollCount + ", grossSalary=" + getGrossSalary() + ", netSalary=" + getNetSalary() + "]";
+    }
+}
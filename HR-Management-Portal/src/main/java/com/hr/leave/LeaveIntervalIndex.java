@@ -0,0 +1,202 @@
+package com.hr.leave;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Approved leaves of one department as an implicit interval tree: intervals
+ * sorted by first day, where the middle of every range is a node and maxEnd
+ * holds the last day reached anywhere in that node's range. An overlap query
+ * skips every subtree that ends before the window or starts after it, so it
+ * costs O(log n + matches) however many leaves are on record.
+ *
+ * Days are epoch days and both ends are inclusive. Indexes are immutable;
+ * {@link #with} and {@link #without} return a new one, so readers never lock.
+ * They copy the arrays around the one changed entry, O(n) with no per-leave
+ * objects, rather than sorting again.
+ */
+public final class LeaveIntervalIndex {
+
+    public static final LeaveIntervalIndex EMPTY = new LeaveIntervalIndex(new int[0], new int[0], new int[0], new int[0]);
+
+    private final int[] firstDays;
+    private final int[] lastDays;
+    private final int[] leaveIds;
+    private final int[] employeeIds;
+    private final int[] maxEnd;
+
+    private LeaveIntervalIndex(int[] firstDays, int[] lastDays, int[] leaveIds, int[] employeeIds) {
+        this.firstDays = firstDays;
+        this.lastDays = lastDays;
+        this.leaveIds = leaveIds;
+        this.employeeIds = employeeIds;
+        this.maxEnd = new int[leaveIds.length];
+        buildMaxEnd(0, leaveIds.length);
+    }
+
+    public static LeaveIntervalIndex of(List<Leave> leaves) {
+        Leave[] sorted = leaves.toArray(new Leave[0]);
+        Arrays.sort(sorted, (a, b) -> a.firstDay() != b.firstDay()
+                ? Integer.compare(a.firstDay(), b.firstDay()) : Integer.compare(a.leaveId(), b.leaveId()));
+        int[] firstDays = new int[sorted.length];
+        int[] lastDays = new int[sorted.length];
+        int[] leaveIds = new int[sorted.length];
+        int[] employeeIds = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            firstDays[i] = sorted[i].firstDay();
+            lastDays[i] = sorted[i].lastDay();
+            leaveIds[i] = sorted[i].leaveId();
+            employeeIds[i] = sorted[i].employeeId();
+        }
+        return new LeaveIntervalIndex(firstDays, lastDays, leaveIds, employeeIds);
+    }
+
+    // Copy with the leave added, replacing an earlier interval of the same leave request
+    public LeaveIntervalIndex with(Leave leave) {
+        LeaveIntervalIndex base = without(leave.leaveId());
+        int at = base.insertionPoint(leave.firstDay(), leave.leaveId());
+        int[] firstDays = insert(base.firstDays, at, leave.firstDay());
+        int[] lastDays = insert(base.lastDays, at, leave.lastDay());
+        int[] leaveIds = insert(base.leaveIds, at, leave.leaveId());
+        int[] employeeIds = insert(base.employeeIds, at, leave.employeeId());
+        return new LeaveIntervalIndex(firstDays, lastDays, leaveIds, employeeIds);
+    }
+
+    public LeaveIntervalIndex without(int leaveId) {
+        int at = -1;
+        for (int i = 0; i < leaveIds.length; i++) {
+            if (leaveIds[i] == leaveId) {
+                at = i;
+                break;
+            }
+        }
+        if (at < 0) {
+            return this;
+        }
+        return new LeaveIntervalIndex(remove(firstDays, at), remove(lastDays, at), remove(leaveIds, at),
+                remove(employeeIds, at));
+    }
+
+    // Leaves overlapping [from, to], in order of first day
+    public List<Leave> overlapping(LocalDate from, LocalDate to) {
+        List<Leave> out = new ArrayList<>();
+        collect(0, leaveIds.length, (int) from.toEpochDay(), (int) to.toEpochDay(), out);
+        return out;
+    }
+
+    public boolean anyOn(LocalDate day) {
+        int epochDay = (int) day.toEpochDay();
+        return any(0, leaveIds.length, epochDay, epochDay);
+    }
+
+    public int size() {
+        return leaveIds.length;
+    }
+
+    public List<Leave> leaves() {
+        List<Leave> leaves = new ArrayList<>(leaveIds.length);
+        for (int i = 0; i < leaveIds.length; i++) {
+            leaves.add(leave(i));
+        }
+        return leaves;
+    }
+
+    // First position whose (first day, leave id) sorts after the given one
+    private int insertionPoint(int firstDay, int leaveId) {
+        int lo = 0;
+        int hi = leaveIds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (firstDays[mid] < firstDay || (firstDays[mid] == firstDay && leaveIds[mid] < leaveId)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int[] insert(int[] values, int at, int value) {
+        int[] copy = new int[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(values, at, copy, at + 1, values.length - at);
+        return copy;
+    }
+
+    private static int[] remove(int[] values, int at) {
+        int[] copy = new int[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+        return copy;
+    }
+
+    private int buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Integer.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        int max = Math.max(lastDays[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void collect(int lo, int hi, int from, int to, List<Leave> out) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] < from) {
+            return;
+        }
+        collect(lo, mid, from, to, out);
+        if (firstDays[mid] > to) {
+            return;
+        }
+        if (lastDays[mid] >= from) {
+            out.add(leave(mid));
+        }
+        collect(mid + 1, hi, from, to, out);
+    }
+
+    private boolean any(int lo, int hi, int from, int to) {
+        if (lo >= hi) {
+            return false;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] < from) {
+            return false;
+        }
+        if (any(lo, mid, from, to)) {
+            return true;
+        }
+        if (firstDays[mid] > to) {
+            return false;
+        }
+        return lastDays[mid] >= from || any(mid + 1, hi, from, to);
+    }
+
+    private Leave leave(int i) {
+        return new Leave(leaveIds[i], employeeIds[i], firstDays[i], lastDays[i]);
+    }
+
+    /**
+     * One approved leave request; days are epoch days, both inclusive.
+     */
+    public record Leave(int leaveId, int employeeId, int firstDay, int lastDay) {
+
+        public static Leave of(int leaveId, int employeeId, LocalDate from, LocalDate to) {
+            return new Leave(leaveId, employeeId, (int) from.toEpochDay(), (int) to.toEpochDay());
+        }
+
+        public LocalDate fromDate() {
+            return LocalDate.ofEpochDay(firstDay);
+        }
+
+        public LocalDate toDate() {
+            return LocalDate.ofEpochDay(lastDay);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.hr.payroll;
+
+/**
+ * Columnar batch of payroll rows for {@link PayrollEngine}.
+ * Inputs and results live in parallel primitive arrays indexed by row, all
+ * amounts in paise. A batch is reused by calling {@link #clear()}; it is not
+ * thread-safe.
+ */
+public final class PayrollBatch {
+
+    private final int capacity;
+    private int size;
+
+    // Inputs
+    final long[] basic;
+    final long[] otherAllowances;
+    final long[] otherDeductions;
+    final int[] workingDays;
+    final int[] presentDays;
+
+    // Results
+    final long[] hra;
+    final long[] transportAllowance;
+    final long[] medicalAllowance;
+    final long[] grossSalary;
+    final long[] pfDeduction;
+    final long[] esiDeduction;
+    final long[] professionalTax;
+    final long[] insuranceDeduction;
+    final long[] incomeTax;
+    final long[] totalDeductions;
+    final long[] netSalary;
+
+    public PayrollBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        basic = new long[capacity];
+        otherAllowances = new long[capacity];
+        otherDeductions = new long[capacity];
+        workingDays = new int[capacity];
+        presentDays = new int[capacity];
+        hra = new long[capacity];
+        transportAllowance = new long[capacity];
+        medicalAllowance = new long[capacity];
+        grossSalary = new long[capacity];
+        pfDeduction = new long[capacity];
+        esiDeduction = new long[capacity];
+        professionalTax = new long[capacity];
+        insuranceDeduction = new long[capacity];
+        incomeTax = new long[capacity];
+        totalDeductions = new long[capacity];
+        netSalary = new long[capacity];
+    }
+
+    /**
+     * Appends one employee and returns its row index.
+     */
+    public int add(long basicPaise, long otherAllowancesPaise, long otherDeductionsPaise,
+                   int workingDays, int presentDays) {
+        if (size == capacity) {
+            throw new IllegalStateException("Payroll batch is full (" + capacity + " rows)");
+        }
+        int row = size++;
+        this.basic[row] = basicPaise;
+        this.otherAllowances[row] = otherAllowancesPaise;
+        this.otherDeductions[row] = otherDeductionsPaise;
+        this.workingDays[row] = workingDays;
+        this.presentDays[row] = presentDays;
+        return row;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long getBasic(int row) {
+        return basic[row];
+    }
+
+    public long getOtherAllowances(int row) {
+        return otherAllowances[row];
+    }
+
+    public long getOtherDeductions(int row) {
+        return otherDeductions[row];
+    }
+
+    public long getHra(int row) {
+        return hra[row];
+    }
+
+    public long getTransportAllowance(int row) {
+        return transportAllowance[row];
+    }
+
+    public long getMedicalAllowance(int row) {
+        return medicalAllowance[row];
+    }
+
+    public long getGrossSalary(int row) {
+        return grossSalary[row];
+    }
+
+    public long getPfDeduction(int row) {
+        return pfDeduction[row];
+    }
+
+    public long getEsiDeduction(int row) {
+        return esiDeduction[row];
+    }
+
+    public long getProfessionalTax(int row) {
+        return professionalTax[row];
+    }
+
+    public long getInsuranceDeduction(int row) {
+        return insuranceDeduction[row];
+    }
+
+    public long getIncomeTax(int row) {
+        return incomeTax[row];
+    }
+
+    public long getTotalDeductions(int row) {
+        return totalDeductions[row];
+    }
+
+    public long getNetSalary(int row) {
+        return netSalary[row];
+    }
+}
@@ -0,0 +1,127 @@
+package com.hr.payroll;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-point payroll calculation over a {@link PayrollBatch}.
+ * Every amount is a long in paise and every rate is in basis points; each
+ * component is rounded half away from zero to the paisa. The hot loop works
+ * only on the batch's primitive columns, so it neither boxes nor allocates.
+ * Engines are immutable and can be shared between threads (batches cannot).
+ */
+public final class PayrollEngine {
+
+    private static final PayrollEngine STANDARD = new PayrollEngine(PayrollRates.DEFAULT);
+
+    private final PayrollRates rates;
+
+    public PayrollEngine(PayrollRates rates) {
+        this.rates = rates;
+    }
+
+    public static PayrollEngine standard() {
+        return STANDARD;
+    }
+
+    public PayrollRates getRates() {
+        return rates;
+    }
+
+    public void calculate(PayrollBatch batch) {
+        calculate(batch, 0, batch.size());
+    }
+
+    /**
+     * Calculates rows {@code [from, to)} of the batch in place.
+     */
+    public void calculate(PayrollBatch batch, int from, int to) {
+        final long[] basic = batch.basic;
+        final long[] otherAllowances = batch.otherAllowances;
+        final long[] otherDeductions = batch.otherDeductions;
+        final int[] workingDays = batch.workingDays;
+        final int[] presentDays = batch.presentDays;
+        final int hraBps = rates.hraBps;
+        final long transport = rates.transportPaise;
+        final long medical = rates.medicalPaise;
+        final int pfBps = rates.pfBps;
+        final int esiBps = rates.esiBps;
+        final long professionalTax = rates.professionalTaxPaise;
+        final int insuranceBps = rates.insuranceBps;
+
+        for (int i = from; i < to; i++) {
+            long basicPaise = basic[i];
+            if (basicPaise <= 0) {
+                // Nothing to pay; same as the entity, which skips employees without a basic salary
+                batch.hra[i] = 0;
+                batch.transportAllowance[i] = 0;
+                batch.medicalAllowance[i] = 0;
+                batch.grossSalary[i] = 0;
+                batch.pfDeduction[i] = 0;
+                batch.esiDeduction[i] = 0;
+                batch.professionalTax[i] = 0;
+                batch.insuranceDeduction[i] = 0;
+                batch.incomeTax[i] = 0;
+                batch.totalDeductions[i] = 0;
+                batch.netSalary[i] = 0;
+                continue;
+            }
+
+            long hra = percent(basicPaise, hraBps);
+            long gross = basicPaise + hra + transport + medical + otherAllowances[i];
+            long pf = percent(gross, pfBps);
+            long esi = percent(gross, esiBps);
+            long insurance = percent(gross, insuranceBps);
+            long tax = monthlyIncomeTax(gross * 12);
+            long deductions = pf + esi + professionalTax + tax + insurance + otherDeductions[i];
+
+            // Net salary pro-rated by attendance; no working days means no pro-rating
+            long net = gross - deductions;
+            int working = workingDays[i];
+            if (working > 0) {
+                net = divideRounded(net * presentDays[i], working);
+            }
+
+            batch.hra[i] = hra;
+            batch.transportAllowance[i] = transport;
+            batch.medicalAllowance[i] = medical;
+            batch.grossSalary[i] = gross;
+            batch.pfDeduction[i] = pf;
+            batch.esiDeduction[i] = esi;
+            batch.professionalTax[i] = professionalTax;
+            batch.insuranceDeduction[i] = insurance;
+            batch.incomeTax[i] = tax;
+            batch.totalDeductions[i] = deductions;
+            batch.netSalary[i] = net;
+        }
+    }
+
+    // Progressive tax on the annual amount, split into twelve monthly instalments
+    long monthlyIncomeTax(long annualPaise) {
+        int slab = Arrays.binarySearch(rates.slabFloors, annualPaise);
+        // Tax applies above a floor, so an amount exactly on a floor belongs to the slab below
+        slab = slab >= 0 ? slab - 1 : -slab - 2;
+        if (slab < 0) {
+            return 0;
+        }
+        long annualScaled = rates.slabBaseTaxScaled[slab] + (annualPaise - rates.slabFloors[slab]) * rates.slabBps[slab];
+        return divideRounded(annualScaled, 12 * PayrollRates.BPS);
+    }
+
+    private static long percent(long amount, int bps) {
+        return divideRounded(amount * bps, PayrollRates.BPS);
+    }
+
+    // Division rounding half away from zero
+    static long divideRounded(long numerator, long denominator) {
+        long half = denominator / 2;
+        return numerator >= 0 ? (numerator + half) / denominator : -((-numerator + half) / denominator);
+    }
+
+    public static long toPaise(Double rupees) {
+        return rupees == null ? 0L : Math.round(rupees * 100);
+    }
+
+    public static double toRupees(long paise) {
+        return paise / 100.0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.hr.payroll;
+
+/**
+ * Immutable rate card for {@link PayrollEngine}.
+ * Percentages are in basis points (1% = 100) and fixed amounts in paise, so the
+ * engine never touches floating point. Income tax slabs are given as ascending
+ * annual floors with the marginal rate that applies above each floor; the tax
+ * accumulated below every floor is worked out once here.
+ */
+public final class PayrollRates {
+
+    static final long BPS = 10_000L;
+
+    // HRA 40%, transport 2000, medical 1500, PF 12%, ESI 1.75%, PT 200, insurance 2%,
+    // income tax 5% above 2.5L, 20% above 5L and 30% above 10L
+    public static final PayrollRates DEFAULT = new PayrollRates(4000, 200_000L, 150_000L, 1200, 175, 20_000L, 200,
+            new long[] {25_000_000L, 50_000_000L, 100_000_000L}, new int[] {500, 2000, 3000});
+
+    final int hraBps;
+    final long transportPaise;
+    final long medicalPaise;
+    final int pfBps;
+    final int esiBps;
+    final long professionalTaxPaise;
+    final int insuranceBps;
+    final long[] slabFloors;
+    final int[] slabBps;
+    // Annual tax due at each slab floor, in paise x BPS so no rounding happens before the monthly split
+    final long[] slabBaseTaxScaled;
+
+    public PayrollRates(int hraBps, long transportPaise, long medicalPaise, int pfBps, int esiBps,
+                        long professionalTaxPaise, int insuranceBps, long[] slabFloors, int[] slabBps) {
+        if (slabFloors.length != slabBps.length) {
+            throw new IllegalArgumentException("Each tax slab needs a floor and a rate");
+        }
+        for (int i = 1; i < slabFloors.length; i++) {
+            if (slabFloors[i] <= slabFloors[i - 1]) {
+                throw new IllegalArgumentException("Tax slab floors must be strictly ascending");
+            }
+        }
+        this.hraBps = hraBps;
+        this.transportPaise = transportPaise;
+        this.medicalPaise = medicalPaise;
+        this.pfBps = pfBps;
+        this.esiBps = esiBps;
+        this.professionalTaxPaise = professionalTaxPaise;
+        this.insuranceBps = insuranceBps;
+        this.slabFloors = slabFloors.clone();
+        this.slabBps = slabBps.clone();
+        this.slabBaseTaxScaled = new long[slabFloors.length];
+        for (int i = 1; i < slabFloors.length; i++) {
+            slabBaseTaxScaled[i] = slabBaseTaxScaled[i - 1] + (slabFloors[i] - slabFloors[i - 1]) * slabBps[i - 1];
+        }
+    }
+
+    public int getHraBps() {
+        return hraBps;
+    }
+
+    public long getTransportPaise() {
+        return transportPaise;
+    }
+
+    public long getMedicalPaise() {
+        return medicalPaise;
+    }
+
+    public int getPfBps() {
+        return pfBps;
+    }
+
+    public int getEsiBps() {
+        return esiBps;
+    }
+
+    public long getProfessionalTaxPaise() {
+        return professionalTaxPaise;
+    }
+
+    public int getInsuranceBps() {
+        return insuranceBps;
+    }
+
+    public long[] getSlabFloors() {
+        return slabFloors.clone();
+    }
+
+    public int[] getSlabBps() {
+        return slabBps.clone();
+    }
+}
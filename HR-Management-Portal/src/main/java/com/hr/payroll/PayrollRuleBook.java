@@ -0,0 +1,96 @@
+package com.hr.payroll;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Compiled payroll rules: one {@link PayrollEngine} per configured financial
+ * year, found by binary search over the sorted years. A financial year without
+ * rules of its own uses the closest earlier one; years before the first use the
+ * built-in rates.
+ *
+ * Books are immutable. The book in use is swapped in one volatile write, so
+ * calculations read it without locking and never see a half-loaded rule set.
+ */
+public final class PayrollRuleBook {
+
+    public static final PayrollRuleBook DEFAULTS = new PayrollRuleBook(new int[0], new int[0], new PayrollRates[0]);
+
+    private static volatile PayrollRuleBook current = DEFAULTS;
+
+    private final int[] financialYears;
+    private final int[] versions;
+    private final PayrollEngine[] engines;
+
+    public PayrollRuleBook(int[] financialYears, int[] versions, PayrollRates[] rates) {
+        if (financialYears.length != versions.length || financialYears.length != rates.length) {
+            throw new IllegalArgumentException("Each financial year needs a version and rates");
+        }
+        for (int i = 1; i < financialYears.length; i++) {
+            if (financialYears[i] <= financialYears[i - 1]) {
+                throw new IllegalArgumentException("Financial years must be strictly ascending");
+            }
+        }
+        this.financialYears = financialYears.clone();
+        this.versions = versions.clone();
+        this.engines = new PayrollEngine[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            engines[i] = new PayrollEngine(rates[i]);
+        }
+    }
+
+    public static PayrollRuleBook current() {
+        return current;
+    }
+
+    public static void install(PayrollRuleBook book) {
+        current = book;
+    }
+
+    // Financial years run April to March and are named after their first calendar year
+    public static int financialYearOf(int period) {
+        int year = period / 100;
+        return period % 100 >= 4 ? year : year - 1;
+    }
+
+    public static int currentFinancialYear() {
+        LocalDate today = LocalDate.now();
+        return financialYearOf(today.getYear() * 100 + today.getMonthValue());
+    }
+
+    // Engine for a yyyyMM period; no period means today's financial year
+    public PayrollEngine engineFor(Integer period) {
+        return engineForFinancialYear(period != null ? financialYearOf(period) : currentFinancialYear());
+    }
+
+    public PayrollEngine engineForFinancialYear(int financialYear) {
+        int index = indexOf(financialYear);
+        return index >= 0 ? engines[index] : PayrollEngine.standard();
+    }
+
+    public PayrollRates ratesForFinancialYear(int financialYear) {
+        return engineForFinancialYear(financialYear).getRates();
+    }
+
+    // Financial year whose rules apply to the given one, or null when the built-in rates apply
+    public Integer sourceFinancialYear(int financialYear) {
+        int index = indexOf(financialYear);
+        return index >= 0 ? financialYears[index] : null;
+    }
+
+    // Version of the rules that apply to the year, or null when the built-in rates apply
+    public Integer versionForFinancialYear(int financialYear) {
+        int index = indexOf(financialYear);
+        return index >= 0 ? versions[index] : null;
+    }
+
+    public int[] getFinancialYears() {
+        return financialYears.clone();
+    }
+
+    // Index of the year, or of the closest earlier configured year; -1 if there is none
+    private int indexOf(int financialYear) {
+        int index = Arrays.binarySearch(financialYears, financialYear);
+        return index >= 0 ? index : -index - 2;
+    }
+}
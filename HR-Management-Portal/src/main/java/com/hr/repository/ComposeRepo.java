@@ -2,18 +2,42 @@ package com.hr.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-//import org.springframework.data.jpa.repository.Query;
-//import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.hr.entity.Compose;
+import com.hr.repository.projection.ApprovedLeaveRow;
+import com.hr.repository.projection.GroupCount;
+import com.hr.repository.projection.LeaveStatusTotals;
 
 @Repository
 public interface ComposeRepo extends JpaRepository<Compose, Integer>{
 
 	public List<Compose> findByParentUkid(Integer parentUkid);
 	
+	// Leave request counts per status in a single grouped query
+	@Query("SELECT c.status AS groupKey, COUNT(c) AS total FROM Compose c GROUP BY c.status")
+	List<GroupCount> countGroupByStatus();
+	
+	// One employee's leave requests and requested days per status, for summaries and balances
+	@Query("SELECT UPPER(c.status) AS status, COUNT(c) AS requests, COALESCE(SUM(c.leaveDays), 0) AS leaveDays "
+			+ "FROM Compose c WHERE c.parentUkid = :employeeId GROUP BY UPPER(c.status)")
+	List<LeaveStatusTotals> sumLeaveDaysByStatus(@Param("employeeId") Integer employeeId);
+	
+	// Approved leave requests that have both dates, with the requester's current department
+	@Query("SELECT c.id AS leaveId, c.parentUkid AS employeeId, e.department AS department, "
+			+ "c.fromDate AS fromDate, c.toDate AS toDate FROM Compose c LEFT JOIN Employee e ON e.id = c.parentUkid "
+			+ "WHERE c.status = 'APPROVED' AND c.parentUkid IS NOT NULL AND c.fromDate IS NOT NULL AND c.toDate IS NOT NULL")
+	List<ApprovedLeaveRow> findApprovedLeaves();
+	
+	// Leave requests written before the structured leave columns, in ID order
+	@Query("SELECT c FROM Compose c WHERE c.id > :afterId AND c.leaveType IS NULL AND c.fromDate IS NULL "
+			+ "AND c.text LIKE 'Leave Type:%' ORDER BY c.id")
+	List<Compose> findLeaveDetailsToBackfill(@Param("afterId") Integer afterId, Pageable pageable);
+	
 	/*@Query("SELECT COUNT(c) FROM Compose c WHERE c.status = :status")
 	int countByStatus(@Param("status") String status);
 
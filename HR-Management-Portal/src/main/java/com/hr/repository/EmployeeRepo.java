@@ -1,10 +1,15 @@
 package com.hr.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.hr.entity.Employee;
+import com.hr.repository.projection.EmployeeSalaryRow;
+import com.hr.repository.projection.GroupCount;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EmployeeRepo extends JpaRepository<Employee, Integer>{
@@ -16,7 +21,20 @@ public interface EmployeeRepo extends JpaRepository<Employee, Integer>{
 	public Employee findByEmailAndPassword(String email, String password);
 	
 	// Additional methods needed by the service layer
-	public Employee findByEmail(String email);
+	// Backed by the unique UK_EMPLOYEE_EMAIL index, so this is a single-row seek
+	public Optional<Employee> findByEmail(String email);
 	
 	public List<Employee> findByActiveTrue();
+	
+	// Active flag only, used by the JWT filter instead of loading the whole row
+	@Query("SELECT e.active FROM Employee e WHERE e.id = :id")
+	public Optional<Boolean> findActiveById(@Param("id") Integer id);
+	
+	// Active headcount per department, without loading any employee rows
+	@Query("SELECT e.department AS groupKey, COUNT(e) AS total FROM Employee e WHERE e.active = true GROUP BY e.department")
+	public List<GroupCount> countActiveGroupByDepartment();
+	
+	// Id, name, salary and department of every active employee, for bulk payroll generation
+	@Query("SELECT e.id AS id, e.employeeName AS employeeName, e.salary AS salary, e.department AS department FROM Employee e WHERE e.active = true ORDER BY e.id")
+	public List<EmployeeSalaryRow> findActiveSalaryRows();
 }
@@ -0,0 +1,15 @@
+package com.hr.repository;
+
+import com.hr.entity.LeaveLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LeaveLedgerRepo extends JpaRepository<LeaveLedgerEntry, Integer> {
+
+    List<LeaveLedgerEntry> findByEmployeeIdOrderByIdDesc(Integer employeeId);
+
+    boolean existsByComposeIdAndEntryType(Integer composeId, String entryType);
+}
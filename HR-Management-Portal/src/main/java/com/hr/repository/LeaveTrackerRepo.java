@@ -1,9 +1,15 @@
 package com.hr.repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.hr.entity.LeaveTracker;
@@ -13,5 +19,41 @@ public interface LeaveTrackerRepo extends JpaRepository<LeaveTracker, Integer> {
     
     List<LeaveTracker> findByEmployeeId(Integer employeeId);
     
-    Optional<LeaveTracker> findFirstByEmployeeId(Integer employeeId);
+    Optional<LeaveTracker> findByEmployeeIdAndLeaveYear(Integer employeeId, Integer leaveYear);
+
+    // Leaves with both dates overlapping [from, to], using IDX_LEAVE_TRACKER_START_END
+    @Query("SELECT t FROM LeaveTracker t WHERE t.startDate <= :to AND t.endDate >= :from ORDER BY t.startDate, t.id")
+    List<LeaveTracker> findOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Rows written before START_DATE/END_DATE existed, in ID order
+    @Query("SELECT t FROM LeaveTracker t WHERE t.id > :afterId AND ((t.startDate IS NULL AND t.fromDate IS NOT NULL) "
+            + "OR (t.endDate IS NULL AND t.toDate IS NOT NULL)) ORDER BY t.id")
+    List<LeaveTracker> findDatesToBackfill(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT t.id FROM LeaveTracker t WHERE t.employeeId = :employeeId AND t.leaveYear = :year")
+    Integer findBalanceTrackerId(@Param("employeeId") Integer employeeId, @Param("year") Integer year);
+
+    // Balance trackers for the year of every active employee that has none, in one statement
+    @Modifying
+    @Query("INSERT INTO LeaveTracker (employeeId, leaveYear, totalLeaves, usedLeaves, status, createdDate, updatedDate) "
+            + "SELECT e.id, :year, :totalLeaves, 0, 'PENDING', :now, :now FROM Employee e WHERE e.active = true "
+            + "AND NOT EXISTS (SELECT t.id FROM LeaveTracker t WHERE t.employeeId = e.id AND t.leaveYear = :year)")
+    int provisionYear(@Param("year") Integer year, @Param("totalLeaves") Integer totalLeaves,
+                      @Param("now") LocalDateTime now);
+
+    // The row balances were read from before LEAVE_YEAR (lowest id), for employees with no yearly tracker yet
+    @Query("SELECT MIN(t.id) FROM LeaveTracker t WHERE t.leaveYear IS NULL "
+            + "AND NOT EXISTS (SELECT y.id FROM LeaveTracker y WHERE y.employeeId = t.employeeId AND y.leaveYear IS NOT NULL) "
+            + "GROUP BY t.employeeId")
+    List<Integer> findUnassignedBalanceTrackerIds();
+
+    @Modifying
+    @Query("UPDATE LeaveTracker t SET t.leaveYear = :year WHERE t.id IN :ids")
+    int assignLeaveYear(@Param("ids") List<Integer> ids, @Param("year") Integer year);
+
+    // Relative, conditional deduction: concurrent deductions add up and the balance never goes below zero
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveTracker t SET t.usedLeaves = COALESCE(t.usedLeaves, 0) + :days, t.updatedDate = :now "
+            + "WHERE t.id = :id AND COALESCE(t.usedLeaves, 0) + :days <= t.totalLeaves")
+    int deductIfAvailable(@Param("id") Integer id, @Param("days") Integer days, @Param("now") LocalDateTime now);
 }
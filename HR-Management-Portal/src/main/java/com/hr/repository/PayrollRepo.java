@@ -1,13 +1,27 @@
 package com.hr.repository;
 
 import com.hr.entity.Payroll;
+import com.hr.repository.projection.PayrollListRow;
+import com.hr.repository.projection.PayrollPeriodKey;
+import com.hr.repository.projection.PayrollRegisterRow;
+import com.hr.repository.projection.PayrollTotals;
+import com.hr.repository.projection.PayrollYtdTotals;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface PayrollRepo extends JpaRepository<Payroll, Integer> {
@@ -28,12 +42,43 @@ public interface PayrollRepo extends JpaRepository<Payroll, Integer> {
     List<Payroll> findByPayrollYear(Integer payrollYear);
 
     // Get latest payroll for an employee
-    @Query("SELECT p FROM Payroll p WHERE p.employeeId = :employeeId ORDER BY p.payrollYear DESC, p.payrollMonth DESC")
+    @Query("SELECT p FROM Payroll p WHERE p.employeeId = :employeeId ORDER BY p.period DESC, p.id DESC")
     List<Payroll> findLatestPayrollByEmployeeId(@Param("employeeId") Integer employeeId);
 
+    // All payrolls of one yyyyMM period, whatever spelling of the month they were generated with
+    List<Payroll> findByPeriod(Integer period);
+
+    // Payroll of an employee for one yyyyMM period (unique index seek)
+    Optional<Payroll> findByEmployeeIdAndPeriod(Integer employeeId, Integer period);
+
+    // Most recent payroll of an employee, read from the end of its (EMPLOYEE_ID, PERIOD) index range
+    Optional<Payroll> findFirstByEmployeeIdOrderByPeriodDesc(Integer employeeId);
+
+    // Payrolls of an employee between two yyyyMM periods, inclusive
+    List<Payroll> findByEmployeeIdAndPeriodBetweenOrderByPeriodAsc(Integer employeeId, Integer fromPeriod, Integer toPeriod);
+
+    // Month/year pairs of payrolls written before PERIOD existed
+    @Query("SELECT DISTINCT p.payrollMonth AS payrollMonth, p.payrollYear AS payrollYear FROM Payroll p "
+            + "WHERE p.period IS NULL AND p.payrollMonth IS NOT NULL AND p.payrollYear IS NOT NULL")
+    List<PayrollPeriodKey> findPeriodKeysToBackfill();
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payroll p SET p.period = :period "
+            + "WHERE p.payrollMonth = :month AND p.payrollYear = :year AND p.period IS NULL")
+    int backfillPeriod(@Param("month") String month, @Param("year") Integer year, @Param("period") Integer period);
+
     // Check if payroll exists for employee in a specific month/year
     boolean existsByEmployeeIdAndPayrollMonthAndPayrollYear(Integer employeeId, String payrollMonth, Integer payrollYear);
 
+    // Employees that already have a payroll for the period, fetched in one query (same key as UK_PAYROLL_EMPLOYEE_PERIOD)
+    @Query("SELECT p.employeeId FROM Payroll p WHERE p.period = :period")
+    Set<Integer> findEmployeeIdsWithPayroll(@Param("period") Integer period);
+
+    // Same for a month name that has no period
+    @Query("SELECT p.employeeId FROM Payroll p WHERE p.payrollMonth = :month AND p.payrollYear = :year")
+    Set<Integer> findEmployeeIdsWithPayrollForMonth(@Param("month") String month, @Param("year") Integer year);
+
     // Get total payroll cost for a month/year
     @Query("SELECT SUM(p.netSalary) FROM Payroll p WHERE p.payrollMonth = :month AND p.payrollYear = :year AND p.status = 'APPROVED'")
     Double getTotalPayrollCost(@Param("month") String month, @Param("year") Integer year);
@@ -42,6 +87,108 @@ public interface PayrollRepo extends JpaRepository<Payroll, Integer> {
     @Query("SELECT AVG(p.netSalary) FROM Payroll p WHERE p.status = 'APPROVED'")
     Double getAverageSalary();
 
+    // Payroll rows with employee name and department joined in, one statement per page
+    String PAYROLL_LIST_SELECT = "SELECT p.id AS id, p.employeeId AS employeeId, e.employeeName AS employeeName, "
+            + "e.department AS department, p.basicSalary AS basicSalary, p.hra AS hra, "
+            + "p.transportAllowance AS transportAllowance, p.medicalAllowance AS medicalAllowance, "
+            + "p.pfDeduction AS pfDeduction, p.esiDeduction AS esiDeduction, p.grossSalary AS grossSalary, "
+            + "p.totalDeductions AS totalDeductions, p.netSalary AS netSalary, p.payrollMonth AS payrollMonth, "
+            + "p.payrollYear AS payrollYear, p.period AS period, p.workingDays AS workingDays, p.presentDays AS presentDays, "
+            + "p.status AS status, p.createdDate AS createdDate "
+            + "FROM Payroll p LEFT JOIN Employee e ON e.id = p.employeeId ";
+
+    // Keyset pages, newest first: rows strictly before (period, id); beforePeriod MAX_VALUE starts at the top
+    @Query(PAYROLL_LIST_SELECT + "WHERE p.period < :period OR (p.period = :period AND p.id < :id) "
+            + "ORDER BY p.period DESC, p.id DESC")
+    List<PayrollListRow> findPayrollRowsBefore(@Param("period") Integer period, @Param("id") Integer id,
+                                               Pageable pageable);
+
+    @Query(PAYROLL_LIST_SELECT + "WHERE p.employeeId = :employeeId "
+            + "AND (p.period < :period OR (p.period = :period AND p.id < :id)) ORDER BY p.period DESC, p.id DESC")
+    List<PayrollListRow> findPayrollRowsByEmployeeIdBefore(@Param("employeeId") Integer employeeId,
+                                                           @Param("period") Integer period, @Param("id") Integer id,
+                                                           Pageable pageable);
+
+    // Rows whose month was never recognised have no period; they are listed after all others
+    @Query(PAYROLL_LIST_SELECT + "WHERE p.period IS NULL AND p.id < :id ORDER BY p.id DESC")
+    List<PayrollListRow> findPayrollRowsWithoutPeriod(@Param("id") Integer id, Pageable pageable);
+
+    @Query(PAYROLL_LIST_SELECT + "WHERE p.employeeId = :employeeId AND p.period IS NULL AND p.id < :id "
+            + "ORDER BY p.id DESC")
+    List<PayrollListRow> findPayrollRowsByEmployeeIdWithoutPeriod(@Param("employeeId") Integer employeeId,
+                                                                  @Param("id") Integer id, Pageable pageable);
+
+    // Full pay breakdown joined with the employee, for the payroll register and salary slips
+    String REGISTER_SELECT = "SELECT p.id AS payrollId, p.employeeId AS employeeId, e.employeeName AS employeeName, "
+            + "e.department AS department, e.designation AS designation, p.payrollMonth AS payrollMonth, "
+            + "p.payrollYear AS payrollYear, p.basicSalary AS basicSalary, p.hra AS hra, "
+            + "p.transportAllowance AS transportAllowance, p.medicalAllowance AS medicalAllowance, "
+            + "p.otherAllowances AS otherAllowances, p.grossSalary AS grossSalary, p.pfDeduction AS pfDeduction, "
+            + "p.esiDeduction AS esiDeduction, p.professionalTax AS professionalTax, p.incomeTax AS incomeTax, "
+            + "p.insuranceDeduction AS insuranceDeduction, p.otherDeductions AS otherDeductions, "
+            + "p.totalDeductions AS totalDeductions, p.netSalary AS netSalary, p.workingDays AS workingDays, "
+            + "p.presentDays AS presentDays, p.status AS status, p.updatedDate AS updatedDate "
+            + "FROM Payroll p LEFT JOIN Employee e ON e.id = p.employeeId ";
+
+    // Register rows for a month, scrolled from a server-side cursor instead of loaded as a list
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(REGISTER_SELECT + "WHERE p.payrollMonth = :month AND p.payrollYear = :year ORDER BY p.id")
+    Stream<PayrollRegisterRow> streamRegister(@Param("month") String month, @Param("year") Integer year);
+
+    @Query(REGISTER_SELECT + "WHERE p.id = :id")
+    Optional<PayrollRegisterRow> findRegisterRowById(@Param("id") Integer id);
+
+    // A month's payrolls: the yyyyMM period, or the month as given when it is not recognised (null period)
+    String MONTH_MATCH = "(p.period = :period OR (:period IS NULL AND p.payrollMonth = :month AND p.payrollYear = :year)) ";
+
+    // Conditional status change for a whole month in one statement
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payroll p SET p.status = :toStatus, p.updatedDate = :changedAt WHERE " + MONTH_MATCH
+            + "AND p.status = :fromStatus")
+    int updateStatusForMonth(@Param("period") Integer period, @Param("month") String month, @Param("year") Integer year,
+                             @Param("fromStatus") String fromStatus, @Param("toStatus") String toStatus,
+                             @Param("changedAt") LocalDateTime changedAt);
+
+    // Keyset page of the rows changed by one updateStatusForMonth call
+    @Query("SELECT p.id FROM Payroll p WHERE " + MONTH_MATCH
+            + "AND p.status = :status AND p.updatedDate = :changedAt AND p.id > :afterId ORDER BY p.id")
+    List<Integer> findChangedIds(@Param("period") Integer period, @Param("month") String month,
+                                 @Param("year") Integer year, @Param("status") String status,
+                                 @Param("changedAt") LocalDateTime changedAt, @Param("afterId") Integer afterId,
+                                 Pageable pageable);
+
+    // Copy the employee's current department onto payrolls generated before it was recorded
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payroll p SET p.department = (SELECT e.department FROM Employee e WHERE e.id = p.employeeId) "
+            + "WHERE p.department IS NULL")
+    int backfillDepartments();
+
+    // Totals per (period, status, department), used to rebuild PAYROLL_SUMMARY from scratch
+    @Query("SELECT p.period AS period, p.status AS status, p.department AS department, COUNT(p) AS payrollCount, "
+            + "SUM(p.grossSalary) AS totalGross, SUM(p.netSalary) AS totalNet "
+            + "FROM Payroll p WHERE p.period IS NOT NULL GROUP BY p.period, p.status, p.department")
+    List<PayrollTotals> summarizeAll();
+
+    String YTD_TOTALS_SELECT = "SELECT p.employeeId AS employeeId, p.payrollMonth AS payrollMonth, "
+            + "p.payrollYear AS payrollYear, COUNT(p) AS payrollCount, SUM(p.grossSalary) AS grossSalary, "
+            + "SUM(p.incomeTax) AS incomeTax, SUM(p.pfDeduction) AS pfDeduction, SUM(p.esiDeduction) AS esiDeduction, "
+            + "SUM(p.professionalTax) AS professionalTax, SUM(p.totalDeductions) AS totalDeductions, "
+            + "SUM(p.netSalary) AS netSalary FROM Payroll p ";
+
+    // Per-employee monthly amounts of APPROVED and PAID payrolls, folded into financial years to rebuild PAYROLL_YTD
+    @Query(YTD_TOTALS_SELECT + "WHERE p.status IN ('APPROVED', 'PAID') GROUP BY p.employeeId, p.payrollMonth, p.payrollYear")
+    List<PayrollYtdTotals> summarizeByEmployeeMonth();
+
+    // Per-employee amounts of the rows changed by one updateStatusForMonth call
+    @Query(YTD_TOTALS_SELECT + "WHERE " + MONTH_MATCH + "AND p.status = :status AND p.updatedDate = :changedAt "
+            + "GROUP BY p.employeeId, p.payrollMonth, p.payrollYear")
+    List<PayrollYtdTotals> summarizeChangedByEmployee(@Param("period") Integer period, @Param("month") String month,
+                                                      @Param("year") Integer year, @Param("status") String status,
+                                                      @Param("changedAt") LocalDateTime changedAt);
+
     // Count payrolls by status
     long countByStatus(String status);
 
@@ -0,0 +1,29 @@
+package com.hr.repository;
+
+import com.hr.entity.PayrollRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PayrollRuleRepo extends JpaRepository<PayrollRule, Integer> {
+
+    // Rows of the latest version of every financial year, ordered for compiling
+    @Query("SELECT r FROM PayrollRule r WHERE r.version = "
+            + "(SELECT MAX(r2.version) FROM PayrollRule r2 WHERE r2.financialYear = r.financialYear) "
+            + "ORDER BY r.financialYear, r.ruleType, r.threshold")
+    List<PayrollRule> findEffectiveRules();
+
+    @Query("SELECT MAX(r.version) FROM PayrollRule r WHERE r.financialYear = :financialYear")
+    Integer findLatestVersion(@Param("financialYear") Integer financialYear);
+
+    // Changes whenever a version is published; lets every node notice new rules cheaply
+    @Query("SELECT MAX(r.id) FROM PayrollRule r")
+    Integer findLatestId();
+
+    // All versions of one financial year, newest first
+    List<PayrollRule> findByFinancialYearOrderByVersionDescRuleTypeAscThresholdAsc(Integer financialYear);
+}
@@ -0,0 +1,64 @@
+package com.hr.repository;
+
+import com.hr.entity.PayrollRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRunRepo extends JpaRepository<PayrollRun, Integer> {
+
+    // The month's queued or running run (see PayrollRun.activeKeyOf)
+    Optional<PayrollRun> findByActiveKey(String activeKey);
+
+    List<PayrollRun> findByStatusIn(Collection<String> statuses);
+
+    // Take ownership of a run: queued runs, or running runs whose executor stopped sending heartbeats
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.status = 'RUNNING', r.heartbeatAt = :now, r.startedAt = COALESCE(r.startedAt, :now) "
+            + "WHERE r.id = :id AND r.cancelRequested = false "
+            + "AND (r.status = 'QUEUED' OR (r.status = 'RUNNING' AND r.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Integer id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Finish cancelled runs that no executor will pick up again: never started, or whose executor stopped
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.status = 'CANCELLED', r.activeKey = NULL, r.finishedAt = :now "
+            + "WHERE r.cancelRequested = true "
+            + "AND (r.status = 'QUEUED' OR (r.status = 'RUNNING' "
+            + "AND (r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore)))")
+    int cancelAbandoned(@Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.totalEmployees = :total, r.processedEmployees = :processed, "
+            + "r.generatedCount = :generated, r.skippedExisting = :skipped, r.failedCount = :failed, r.heartbeatAt = :now "
+            + "WHERE r.id = :id")
+    int updateProgress(@Param("id") Integer id, @Param("total") int total, @Param("processed") int processed,
+                       @Param("generated") int generated, @Param("skipped") int skipped, @Param("failed") int failed,
+                       @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.cancelRequested FROM PayrollRun r WHERE r.id = :id")
+    Optional<Boolean> findCancelRequestedById(@Param("id") Integer id);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.cancelRequested = true WHERE r.id = :id AND r.status IN ('QUEUED', 'RUNNING')")
+    int requestCancel(@Param("id") Integer id);
+
+    // Queued runs have no executor yet, so they can be cancelled on the spot
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PayrollRun r SET r.status = 'CANCELLED', r.activeKey = NULL, r.finishedAt = :now "
+            + "WHERE r.id = :id AND r.status = 'QUEUED'")
+    int cancelQueued(@Param("id") Integer id, @Param("now") LocalDateTime now);
+}
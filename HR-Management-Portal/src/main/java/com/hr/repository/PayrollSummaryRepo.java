@@ -0,0 +1,23 @@
+package com.hr.repository;
+
+import com.hr.entity.PayrollSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PayrollSummaryRepo extends JpaRepository<PayrollSummary, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PayrollSummary s WHERE s.period = :period AND s.status = :status")
+    List<PayrollSummary> findByStatusForUpdate(@Param("period") Integer period, @Param("status") String status);
+
+    List<PayrollSummary> findByPeriod(Integer period);
+
+    List<PayrollSummary> findByPeriodBetween(Integer fromPeriod, Integer toPeriod);
+}
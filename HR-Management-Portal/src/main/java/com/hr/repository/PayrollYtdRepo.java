@@ -0,0 +1,40 @@
+package com.hr.repository;
+
+import com.hr.entity.PayrollYtd;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollYtdRepo extends JpaRepository<PayrollYtd, Integer> {
+
+    Optional<PayrollYtd> findByEmployeeIdAndFinancialYear(Integer employeeId, Integer financialYear);
+
+    List<PayrollYtd> findByEmployeeIdOrderByFinancialYearDesc(Integer employeeId);
+
+    // Relative update, so concurrent payroll writes for the same employee never lose an increment
+    @Modifying
+    @Query("UPDATE PayrollYtd y SET y.payrollCount = y.payrollCount + :count, "
+            + "y.grossSalaryPaise = y.grossSalaryPaise + :gross, y.incomeTaxPaise = y.incomeTaxPaise + :tax, "
+            + "y.pfDeductionPaise = y.pfDeductionPaise + :pf, y.esiDeductionPaise = y.esiDeductionPaise + :esi, "
+            + "y.professionalTaxPaise = y.professionalTaxPaise + :pt, "
+            + "y.totalDeductionsPaise = y.totalDeductionsPaise + :deductions, "
+            + "y.netSalaryPaise = y.netSalaryPaise + :net, y.updatedDate = :now "
+            + "WHERE y.employeeId = :employeeId AND y.financialYear = :financialYear")
+    int increment(@Param("employeeId") Integer employeeId, @Param("financialYear") Integer financialYear,
+                  @Param("count") long count, @Param("gross") long gross, @Param("tax") long tax,
+                  @Param("pf") long pf, @Param("esi") long esi, @Param("pt") long pt,
+                  @Param("deductions") long deductions, @Param("net") long net, @Param("now") LocalDateTime now);
+
+    // Rows left without payrolls after a delete
+    @Modifying
+    @Query("DELETE FROM PayrollYtd y WHERE y.employeeId = :employeeId AND y.financialYear = :financialYear "
+            + "AND y.payrollCount <= 0")
+    int deleteIfEmpty(@Param("employeeId") Integer employeeId, @Param("financialYear") Integer financialYear);
+}
@@ -0,0 +1,19 @@
+package com.hr.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Approved leave request with its dates and the requester's department.
+ */
+public interface ApprovedLeaveRow {
+
+    Integer getLeaveId();
+
+    Integer getEmployeeId();
+
+    String getDepartment();
+
+    LocalDate getFromDate();
+
+    LocalDate getToDate();
+}
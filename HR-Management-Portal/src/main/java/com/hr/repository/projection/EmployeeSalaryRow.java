@@ -0,0 +1,15 @@
+package com.hr.repository.projection;
+
+/**
+ * Minimal employee view used by bulk payroll generation.
+ */
+public interface EmployeeSalaryRow {
+
+    Integer getId();
+
+    String getEmployeeName();
+
+    Double getSalary();
+
+    String getDepartment();
+}
@@ -0,0 +1,11 @@
+package com.hr.repository.projection;
+
+/**
+ * Row of a "SELECT key, COUNT(*) ... GROUP BY key" projection query.
+ */
+public interface GroupCount {
+
+    String getGroupKey();
+
+    Long getTotal();
+}
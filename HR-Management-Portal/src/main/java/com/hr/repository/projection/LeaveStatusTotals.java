@@ -0,0 +1,13 @@
+package com.hr.repository.projection;
+
+/**
+ * Leave requests and requested days of one employee for one status.
+ */
+public interface LeaveStatusTotals {
+
+    String getStatus();
+
+    Long getRequests();
+
+    Long getLeaveDays();
+}
@@ -0,0 +1,50 @@
+package com.hr.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payroll row joined with the employee name and department, as returned by
+ * the payroll listing queries in a single statement.
+ */
+public interface PayrollListRow {
+
+    Integer getId();
+
+    Integer getEmployeeId();
+
+    String getEmployeeName();
+
+    String getDepartment();
+
+    Double getBasicSalary();
+
+    Double getHra();
+
+    Double getTransportAllowance();
+
+    Double getMedicalAllowance();
+
+    Double getPfDeduction();
+
+    Double getEsiDeduction();
+
+    Double getGrossSalary();
+
+    Double getTotalDeductions();
+
+    Double getNetSalary();
+
+    String getPayrollMonth();
+
+    Integer getPayrollYear();
+
+    Integer getPeriod();
+
+    Integer getWorkingDays();
+
+    Integer getPresentDays();
+
+    String getStatus();
+
+    LocalDateTime getCreatedDate();
+}
@@ -0,0 +1,11 @@
+package com.hr.repository.projection;
+
+/**
+ * Distinct payroll month/year pair.
+ */
+public interface PayrollPeriodKey {
+
+    String getPayrollMonth();
+
+    Integer getPayrollYear();
+}
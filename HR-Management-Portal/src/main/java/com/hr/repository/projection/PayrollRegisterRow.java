@@ -0,0 +1,60 @@
+package com.hr.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of the monthly payroll register handed to finance: the full pay
+ * breakdown joined with the employee's name, department and designation.
+ */
+public interface PayrollRegisterRow {
+
+    Integer getPayrollId();
+
+    Integer getEmployeeId();
+
+    String getEmployeeName();
+
+    String getDepartment();
+
+    String getDesignation();
+
+    String getPayrollMonth();
+
+    Integer getPayrollYear();
+
+    Double getBasicSalary();
+
+    Double getHra();
+
+    Double getTransportAllowance();
+
+    Double getMedicalAllowance();
+
+    Double getOtherAllowances();
+
+    Double getGrossSalary();
+
+    Double getPfDeduction();
+
+    Double getEsiDeduction();
+
+    Double getProfessionalTax();
+
+    Double getIncomeTax();
+
+    Double getInsuranceDeduction();
+
+    Double getOtherDeductions();
+
+    Double getTotalDeductions();
+
+    Double getNetSalary();
+
+    Integer getWorkingDays();
+
+    Integer getPresentDays();
+
+    String getStatus();
+
+    LocalDateTime getUpdatedDate();
+}
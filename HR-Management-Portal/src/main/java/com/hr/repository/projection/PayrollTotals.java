@@ -0,0 +1,19 @@
+package com.hr.repository.projection;
+
+/**
+ * Payroll count and totals for one (period, status, department) bucket.
+ */
+public interface PayrollTotals {
+
+    Integer getPeriod();
+
+    String getStatus();
+
+    String getDepartment();
+
+    Long getPayrollCount();
+
+    Double getTotalGross();
+
+    Double getTotalNet();
+}
@@ -0,0 +1,29 @@
+package com.hr.repository.projection;
+
+/**
+ * Payroll count and year-to-date amounts of one employee for one month.
+ */
+public interface PayrollYtdTotals {
+
+    Integer getEmployeeId();
+
+    String getPayrollMonth();
+
+    Integer getPayrollYear();
+
+    Long getPayrollCount();
+
+    Double getGrossSalary();
+
+    Double getIncomeTax();
+
+    Double getPfDeduction();
+
+    Double getEsiDeduction();
+
+    Double getProfessionalTax();
+
+    Double getTotalDeductions();
+
+    Double getNetSalary();
+}
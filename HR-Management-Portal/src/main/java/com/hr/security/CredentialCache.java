@@ -0,0 +1,69 @@
+package com.hr.security;
+
+import com.hr.cache.TtlCache;
+import com.hr.entity.Employee;
+import com.hr.repository.EmployeeRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Login-time credential lookup.
+ * Email logins resolve through the unique EMAIL index and the resulting
+ * credentials are kept in a small bounded cache, so repeated logins for the
+ * same account do not touch the database. Entries are evicted by
+ * {@link EmployeeCacheListener} whenever the employee row changes.
+ */
+@Component
+public class CredentialCache {
+
+    private final EmployeeRepo employeeRepo;
+    private final TtlCache<String, Credentials> byEmail;
+
+    public CredentialCache(EmployeeRepo employeeRepo,
+                           @Value("${auth.credential-cache.max-size:10000}") int maxSize,
+                           @Value("${auth.credential-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.employeeRepo = employeeRepo;
+        this.byEmail = new TtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    // Look up credentials by email, hitting the EMAIL index only on a cache miss
+    public Optional<Credentials> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byEmail.getOrLoad(email,
+                key -> employeeRepo.findByEmail(key).map(Credentials::of).orElse(null)));
+    }
+
+    // Look up credentials by primary key (emp123 style logins)
+    public Optional<Credentials> findById(Integer employeeId) {
+        return employeeRepo.findById(employeeId).map(Credentials::of);
+    }
+
+    public void evictEmployee(Integer employeeId) {
+        if (employeeId != null) {
+            byEmail.evictIf(credentials -> employeeId.equals(credentials.id()));
+        }
+    }
+
+    public void evictEmail(String email) {
+        if (email != null) {
+            byEmail.evict(email);
+        }
+    }
+
+    /**
+     * Immutable snapshot of the columns needed to authenticate and build a token.
+     */
+    public record Credentials(Integer id, String email, String passwordHash, String role,
+                              String name, String designation, boolean active) {
+
+        static Credentials of(Employee employee) {
+            return new Credentials(employee.getId(), employee.getEmail(), employee.getPassword(),
+                    employee.getRole(), employee.getEmployeeName(), employee.getDesignation(),
+                    employee.isActive());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hr.security;
+
+import com.hr.entity.Employee;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps the in-memory security caches in line with
+ * the EMPLOYEE table. Employees are saved from many controllers, so eviction
+ * hangs off the entity lifecycle rather than every call site.
+ * Hibernate resolves this listener through Spring, so it can be injected.
+ */
+@Component
+public class EmployeeCacheListener {
+
+    // Resolved lazily: the caches depend on EmployeeRepo, which is not ready
+    // yet while Hibernate builds the EntityManagerFactory and this listener
+    @Autowired
+    private ObjectProvider<CredentialCache> credentialCache;
+
+    @Autowired
+    private ObjectProvider<PrincipalCache> principalCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onEmployeeChanged(Employee employee) {
+        evict(employee);
+
+        // Evict again once the change is visible to other transactions, so a
+        // concurrent login cannot repopulate the cache with the old row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(employee);
+                }
+            });
+        }
+    }
+
+    private void evict(Employee employee) {
+        credentialCache.ifAvailable(cache -> {
+            cache.evictEmployee(employee.getId());
+            cache.evictEmail(employee.getEmail());
+        });
+        principalCache.ifAvailable(cache -> cache.evictEmployee(employee.getId()));
+    }
+}
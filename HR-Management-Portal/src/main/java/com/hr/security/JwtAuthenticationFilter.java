@@ -7,6 +7,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,53 +28,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private EmployeeRepo employeeRepo;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    // When true, principals and active flags come from PrincipalCache and most
+    // requests never touch the database. When false, every request re-verifies
+    // the token and re-reads the employee row (the original behaviour).
+    @Value("${jwt.stateless-auth:true}")
+    private boolean statelessAuth;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
-
         // JWT Token is in the form "Bearer token". Remove "Bearer " word and get only the Token
-        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
-            try {
-                username = jwtUtil.getUsernameFromToken(jwtToken);
-            } catch (Exception e) {
-                logger.warn("JWT Token parsing failed: " + e.getMessage());
-            }
-        }
+        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwtToken = requestTokenHeader.substring(7);
 
-        // If username is available and no authentication exists in Security Context
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            
             try {
-                // Validate token
-                if (jwtUtil.isTokenValid(jwtToken)) {
-                    Integer userId = jwtUtil.getUserIdFromToken(jwtToken);
-                    String role = jwtUtil.getRoleFromToken(jwtToken);
-                    
-                    // Verify user exists in database
-                    Optional<Employee> employeeOpt = employeeRepo.findById(userId);
-                    if (employeeOpt.isPresent() && employeeOpt.get().isActive()) {
-                        Employee employee = employeeOpt.get();
-                        
-                        // Create authentication token
-                        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
-                        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
-                                new UsernamePasswordAuthenticationToken(
-                                    employee, null, Collections.singletonList(authority));
-                        usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        
-                        // Set authentication in Security Context
-                        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-                        
-                        // Add user details to request attributes for controllers to use
-                        request.setAttribute("currentUserId", userId);
-                        request.setAttribute("currentUserRole", role);
-                        request.setAttribute("currentUserEmail", jwtUtil.getEmailFromToken(jwtToken));
-                        request.setAttribute("currentUserName", jwtUtil.getNameFromToken(jwtToken));
-                    }
+                // Parse the claims once; an invalid or expired token yields no principal
+                Optional<JwtPrincipal> principalOpt = statelessAuth
+                        ? principalCache.resolve(jwtToken)
+                        : Optional.of(jwtUtil.getPrincipalFromToken(jwtToken)).filter(p -> !p.isExpired());
+
+                if (principalOpt.isPresent() && isActive(principalOpt.get().userId())) {
+                    JwtPrincipal principal = principalOpt.get();
+
+                    // Create authentication token
+                    SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + principal.role());
+                    UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
+                            new UsernamePasswordAuthenticationToken(
+                                principal, null, Collections.singletonList(authority));
+                    usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    // Set authentication in Security Context
+                    SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+
+                    // Add user details to request attributes for controllers to use
+                    request.setAttribute("currentUserId", principal.userId());
+                    request.setAttribute("currentUserRole", principal.role());
+                    request.setAttribute("currentUserEmail", principal.email());
+                    request.setAttribute("currentUserName", principal.name());
                 }
             } catch (Exception e) {
                 logger.warn("JWT Authentication failed: " + e.getMessage());
@@ -83,6 +79,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean isActive(Integer userId) {
+        if (statelessAuth) {
+            return principalCache.isActive(userId);
+        }
+        // Verify user exists in database
+        return userId != null && employeeRepo.findById(userId).map(Employee::isActive).orElse(false);
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         String path = request.getRequestURI();
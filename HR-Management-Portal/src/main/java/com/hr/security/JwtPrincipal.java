@@ -0,0 +1,20 @@
+package com.hr.security;
+
+import java.util.Date;
+
+/**
+ * Authenticated user as described by a verified access token.
+ * Built from a single parse of the token claims and reused for the rest of
+ * the request (and for later requests carrying the same token).
+ */
+public record JwtPrincipal(Integer userId, String username, String role, String email,
+                           String name, long expiresAtMillis) {
+
+    public boolean isExpired() {
+        return expiresAtMillis <= System.currentTimeMillis();
+    }
+
+    public Date getExpiration() {
+        return new Date(expiresAtMillis);
+    }
+}
@@ -0,0 +1,57 @@
+package com.hr.security;
+
+import com.hr.cache.TtlCache;
+import com.hr.repository.EmployeeRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Caches verified token principals and employee active flags so that
+ * authenticated requests do not re-verify the same token or query EMPLOYEE
+ * on every call. Both maps are bounded and TTL-evicted; employee changes
+ * (including deactivation) evict eagerly through {@link EmployeeCacheListener}.
+ */
+@Component
+public class PrincipalCache {
+
+    private final JwtUtil jwtUtil;
+    private final EmployeeRepo employeeRepo;
+    private final TtlCache<String, JwtPrincipal> byToken;
+    private final TtlCache<Integer, Boolean> activeByUser;
+
+    public PrincipalCache(JwtUtil jwtUtil, EmployeeRepo employeeRepo,
+                          @Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${jwt.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.jwtUtil = jwtUtil;
+        this.employeeRepo = employeeRepo;
+        this.byToken = new TtlCache<>(maxSize, ttlSeconds * 1000);
+        this.activeByUser = new TtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    // Resolve a token to its principal, verifying the signature only on a cache miss.
+    // Throws the parser exception for tokens that are malformed or badly signed.
+    public Optional<JwtPrincipal> resolve(String token) {
+        JwtPrincipal principal = byToken.getOrLoad(token, jwtUtil::getPrincipalFromToken);
+        if (principal.isExpired()) {
+            byToken.evict(token);
+            return Optional.empty();
+        }
+        return Optional.of(principal);
+    }
+
+    public boolean isActive(Integer userId) {
+        if (userId == null) {
+            return false;
+        }
+        return activeByUser.getOrLoad(userId, id -> employeeRepo.findActiveById(id).orElse(false));
+    }
+
+    // Token principals only carry claims, so only the active flag needs dropping
+    public void evictEmployee(Integer userId) {
+        if (userId != null) {
+            activeByUser.evict(userId);
+        }
+    }
+}
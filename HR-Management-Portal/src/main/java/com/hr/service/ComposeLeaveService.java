@@ -0,0 +1,141 @@
+package com.hr.service;
+
+import com.hr.entity.Compose;
+import com.hr.repository.ComposeRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Structured leave details of leave requests (COMPOSE).
+ *
+ * Leave type, dates, days and reason are stored in their own columns when a
+ * request is written, so listings, summaries and balances read columns and SQL
+ * aggregates. TEXT keeps the same details as "Leave Type: ... / Reason: ..."
+ * lines for display; requests written before the columns existed are filled in
+ * from it once, at startup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ComposeLeaveService {
+
+    private static final int BACKFILL_CHUNK = 500;
+    private static final String NOT_GIVEN = "N/A";
+
+    private final ComposeRepo composeRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    // Days that are missing or not a number count as 0, as they always did in summaries
+    public void applyLeaveDetails(Compose compose, String leaveType, String fromDate, String toDate,
+                                  Object leaveDays, String reason) {
+        compose.setLeaveType(given(leaveType));
+        compose.setFromDate(parseDate(fromDate));
+        compose.setToDate(parseDate(toDate));
+        compose.setLeaveDays(parseDays(leaveDays != null ? leaveDays.toString() : null));
+        compose.setReason(given(reason));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillLeaveDetails() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int afterId = 0;
+        int filled = 0;
+        try {
+            List<Compose> chunk;
+            while (!(chunk = composeRepo.findLeaveDetailsToBackfill(afterId, PageRequest.of(0, BACKFILL_CHUNK))).isEmpty()) {
+                List<Compose> rows = chunk;
+                transaction.executeWithoutResult(status -> {
+                    rows.forEach(this::applyLeaveDetailsFromText);
+                    composeRepo.saveAll(rows);
+                });
+                filled += rows.size();
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Leave detail backfill stopped after {} requests: {}", filled, e.getMessage());
+            return;
+        }
+        if (filled > 0) {
+            log.info("Filled leave details of {} leave requests from their text", filled);
+        }
+    }
+
+    // Reads the lines written by LeaveController: Leave Type, From, To, Days, then Reason up to the end
+    private void applyLeaveDetailsFromText(Compose compose) {
+        String leaveType = null, fromDate = null, toDate = null, days = null, reason = null;
+        String text = compose.getText();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            String line = text.substring(start, end);
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                String value = line.substring(colon + 1).trim();
+                switch (line.substring(0, colon).trim()) {
+                    case "Leave Type" -> leaveType = value;
+                    case "From" -> fromDate = value;
+                    case "To" -> toDate = value;
+                    case "Days" -> days = value.split("\\s+")[0];
+                    case "Reason" -> {
+                        reason = text.substring(start + colon + 1).trim();
+                        end = text.length();
+                    }
+                    default -> { }
+                }
+            }
+            start = end + 1;
+        }
+        compose.setLeaveType(given(leaveType));
+        compose.setFromDate(parseDate(fromDate));
+        compose.setToDate(parseDate(toDate));
+        compose.setLeaveDays(parseDays(days));
+        compose.setReason(given(reason));
+    }
+
+    private static String given(String value) {
+        return value == null || value.isBlank() || NOT_GIVEN.equals(value.trim()) ? null : value.trim();
+    }
+
+    private static LocalDate parseDate(String value) {
+        String date = given(value);
+        if (date == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            log.warn("Leave date '{}' is not yyyy-MM-dd, left empty", date);
+            return null;
+        }
+    }
+
+    private static int parseDays(String value) {
+        String days = given(value);
+        if (days == null) {
+            return 0;
+        }
+        try {
+            return Math.max(Integer.parseInt(days), 0);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
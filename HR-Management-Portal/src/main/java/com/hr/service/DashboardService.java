@@ -0,0 +1,100 @@
+package com.hr.service;
+
+import com.hr.repository.ComposeRepo;
+import com.hr.repository.CreatePostRepo;
+import com.hr.repository.EmployeeRepo;
+import com.hr.repository.projection.GroupCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard counters computed with aggregate queries and served from a
+ * short-lived snapshot, so dashboard polling costs the same however large
+ * COMPOSE grows. Leave and post writes call {@link #invalidate()}.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class DashboardService {
+
+    private final EmployeeRepo employeeRepo;
+    private final ComposeRepo composeRepo;
+    private final CreatePostRepo createPostRepo;
+    private final long snapshotTtlMillis;
+
+    private volatile DashboardSnapshot snapshot;
+    // Bumped by invalidate(), so a load that was already running when data changed is not installed
+    private final AtomicLong generation = new AtomicLong();
+
+    public DashboardService(EmployeeRepo employeeRepo, ComposeRepo composeRepo, CreatePostRepo createPostRepo,
+                            @Value("${dashboard.snapshot-ttl-seconds:30}") long snapshotTtlSeconds) {
+        this.employeeRepo = employeeRepo;
+        this.composeRepo = composeRepo;
+        this.createPostRepo = createPostRepo;
+        this.snapshotTtlMillis = snapshotTtlSeconds * 1000;
+    }
+
+    public DashboardSnapshot getSnapshot() {
+        DashboardSnapshot current = snapshot;
+        if (current != null && !current.isOlderThan(snapshotTtlMillis)) {
+            return current;
+        }
+        synchronized (this) {
+            // Another request may have refreshed it while we waited
+            current = snapshot;
+            if (current == null || current.isOlderThan(snapshotTtlMillis)) {
+                long loadGeneration = generation.get();
+                current = loadSnapshot();
+                if (generation.get() == loadGeneration) {
+                    snapshot = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private DashboardSnapshot loadSnapshot() {
+        Map<String, Long> leaveStatusCounts = new HashMap<>();
+        for (GroupCount row : composeRepo.countGroupByStatus()) {
+            String status = row.getGroupKey() != null ? row.getGroupKey() : "";
+            leaveStatusCounts.merge(status, row.getTotal(), Long::sum);
+        }
+        long totalEmployees = employeeRepo.count();
+        long totalPosts = createPostRepo.count();
+        log.debug("Refreshed dashboard snapshot: {} employees, {} posts, leave counts {}",
+                totalEmployees, totalPosts, leaveStatusCounts);
+        return new DashboardSnapshot(totalEmployees, totalPosts,
+                Collections.unmodifiableMap(leaveStatusCounts), System.currentTimeMillis());
+    }
+
+    /**
+     * Immutable set of dashboard counters taken at one point in time.
+     */
+    public record DashboardSnapshot(long totalEmployees, long totalPosts,
+                                    Map<String, Long> leaveStatusCounts, long takenAtMillis) {
+
+        public long leaveCount(String status) {
+            return leaveStatusCounts.getOrDefault(status, 0L);
+        }
+
+        public long totalLeaveRequests() {
+            return leaveStatusCounts.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        boolean isOlderThan(long ttlMillis) {
+            return System.currentTimeMillis() - takenAtMillis > ttlMillis;
+        }
+    }
+}
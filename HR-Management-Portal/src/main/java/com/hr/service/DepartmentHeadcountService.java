@@ -0,0 +1,86 @@
+package com.hr.service;
+
+import com.hr.repository.EmployeeRepo;
+import com.hr.repository.projection.GroupCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory active headcount per department.
+ * Loaded once with a GROUP BY query and then kept current by the deltas
+ * EmployeeService reports on create, update and (soft) delete. Deltas are
+ * applied after commit so a rolled-back change never skews the counts.
+ * Employees written outside EmployeeService are picked up by a periodic
+ * full reload.
+ */
+@Slf4j
+@Service
+public class DepartmentHeadcountService {
+
+    private final EmployeeRepo employeeRepo;
+    private final long reloadIntervalMillis;
+
+    private final Map<String, Long> counts = new HashMap<>();
+    private long loadedAt = -1;
+
+    public DepartmentHeadcountService(EmployeeRepo employeeRepo,
+                                      @Value("${dashboard.department-reload-minutes:10}") long reloadIntervalMinutes) {
+        this.employeeRepo = employeeRepo;
+        this.reloadIntervalMillis = reloadIntervalMinutes * 60_000;
+    }
+
+    public synchronized Map<String, Long> getCounts() {
+        if (loadedAt < 0 || System.currentTimeMillis() - loadedAt > reloadIntervalMillis) {
+            reload();
+        }
+        return new HashMap<>(counts);
+    }
+
+    // Report an employee moving between (department, active) states; null department means none
+    public void employeeChanged(String oldDepartment, boolean wasActive, String newDepartment, boolean isActive) {
+        if (wasActive == isActive && Objects.equals(oldDepartment, newDepartment)) {
+            return;
+        }
+        Runnable apply = () -> applyDelta(oldDepartment, wasActive, newDepartment, isActive);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private synchronized void applyDelta(String oldDepartment, boolean wasActive, String newDepartment, boolean isActive) {
+        if (loadedAt < 0) {
+            return; // Not loaded yet, the first load will include this change
+        }
+        if (wasActive && oldDepartment != null) {
+            counts.computeIfPresent(oldDepartment, (dept, count) -> count > 1 ? count - 1 : null);
+        }
+        if (isActive && newDepartment != null) {
+            counts.merge(newDepartment, 1L, Long::sum);
+        }
+    }
+
+    private void reload() {
+        counts.clear();
+        for (GroupCount row : employeeRepo.countActiveGroupByDepartment()) {
+            if (row.getGroupKey() != null) {
+                counts.put(row.getGroupKey(), row.getTotal());
+            }
+        }
+        loadedAt = System.currentTimeMillis();
+        log.debug("Reloaded department headcounts: {}", counts);
+    }
+}
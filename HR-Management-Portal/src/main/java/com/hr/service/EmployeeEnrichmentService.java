@@ -0,0 +1,67 @@
+package com.hr.service;
+
+import com.hr.entity.Employee;
+import com.hr.repository.EmployeeRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Joins employee details onto lists of rows that only carry an employee ID
+ * (leave requests, leave trackers, ...). Collects the distinct IDs and loads
+ * them with one findAllById per chunk instead of one findById per row.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class EmployeeEnrichmentService {
+
+    // Keep IN lists to a size every database handles comfortably
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final EmployeeRepo employeeRepo;
+
+    public Map<Integer, Employee> loadByIds(Collection<Integer> ids) {
+        List<Integer> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Map<Integer, Employee> employees = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += ID_CHUNK_SIZE) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + ID_CHUNK_SIZE, distinctIds.size()));
+            for (Employee employee : employeeRepo.findAllById(chunk)) {
+                employees.put(employee.getId(), employee);
+            }
+        }
+        return employees;
+    }
+
+    // Apply the matching employee to each row; rows whose employee no longer exists are left untouched
+    public <T> void enrich(Collection<T> rows, Function<T, Integer> employeeIdOf, BiConsumer<T, Employee> apply) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            ids.add(employeeIdOf.apply(row));
+        }
+        Map<Integer, Employee> employees = loadByIds(ids);
+        for (T row : rows) {
+            Integer id = employeeIdOf.apply(row);
+            Employee employee = id != null ? employees.get(id) : null;
+            if (employee != null) {
+                apply.accept(row, employee);
+            }
+        }
+    }
+}
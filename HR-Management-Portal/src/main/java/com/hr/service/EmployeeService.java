@@ -23,6 +23,8 @@ import java.util.HashMap;
 public class EmployeeService {
 
     private final EmployeeRepo employeeRepo;
+    private final DepartmentHeadcountService departmentHeadcountService;
+    private final LeaveBalanceService leaveBalanceService;
 
     public List<EmployeeDTO> getAllEmployees() {
         List<Employee> employees = employeeRepo.findAll();
@@ -44,6 +46,8 @@ public class EmployeeService {
     public EmployeeDTO createEmployee(EmployeeDTO employeeDTO) {
         Employee employee = convertToEntity(employeeDTO);
         Employee saved = employeeRepo.save(employee);
+        departmentHeadcountService.employeeChanged(null, false, saved.getDepartment(), saved.isActive());
+        leaveBalanceService.provisionNewEmployee(saved.getId());
         log.info("Created employee with ID: {}", saved.getId());
         return convertToDTO(saved);
     }
@@ -51,8 +55,12 @@ public class EmployeeService {
     public Optional<EmployeeDTO> updateEmployee(Integer id, EmployeeDTO employeeDTO) {
         return employeeRepo.findById(id)
                 .map(existing -> {
+                    String oldDepartment = existing.getDepartment();
+                    boolean wasActive = existing.isActive();
                     updateEntityFromDTO(existing, employeeDTO);
                     Employee updated = employeeRepo.save(existing);
+                    departmentHeadcountService.employeeChanged(oldDepartment, wasActive,
+                            updated.getDepartment(), updated.isActive());
                     log.info("Updated employee with ID: {}", updated.getId());
                     return convertToDTO(updated);
                 });
@@ -61,8 +69,11 @@ public class EmployeeService {
     public boolean deleteEmployee(Integer id) {
         return employeeRepo.findById(id)
                 .map(employee -> {
+                    boolean wasActive = employee.isActive();
                     employee.setActive(false); // Soft delete
                     employeeRepo.save(employee);
+                    departmentHeadcountService.employeeChanged(employee.getDepartment(), wasActive,
+                            employee.getDepartment(), false);
                     log.info("Deactivated employee with ID: {}", id);
                     return true;
                 })
@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hr.entity.CreatePost;
 import com.hr.entity.Employee;
@@ -19,9 +20,17 @@ public class HrService {
 	@Autowired
 	private CreatePostRepo createPostRepo;
 	
+	@Autowired
+	private LeaveBalanceService leaveBalanceService;
+	
+	@Transactional
 	public Employee addEmaployee(Employee employee) {
 		
+		boolean created = employee.getId() == null;
 		Employee save = employeeRepo.save(employee);
+		if (created) {
+			leaveBalanceService.provisionNewEmployee(save.getId());
+		}
 		
 		return save;
 	}
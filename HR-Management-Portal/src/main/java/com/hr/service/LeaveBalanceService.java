@@ -0,0 +1,158 @@
+package com.hr.service;
+
+import com.hr.cache.TtlCache;
+import com.hr.dto.LeaveTrackerDTO;
+import com.hr.entity.LeaveTracker;
+import com.hr.repository.LeaveTrackerRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+
+/**
+ * Yearly leave balances: one balance tracker per employee and calendar year
+ * (UK_LEAVE_TRACKER_EMPLOYEE_YEAR).
+ *
+ * Trackers are provisioned when an employee is created and, for everyone
+ * else, in one INSERT ... SELECT at startup and when the year rolls over, so
+ * reading a balance never writes. Balances are served from a bounded TTL
+ * cache; deductions and tracker edits evict the employee after commit and a
+ * rollover clears it.
+ */
+@Slf4j
+@Service
+@Transactional
+public class LeaveBalanceService {
+
+    public static final int DEFAULT_TOTAL_LEAVES = 40;
+
+    private static final String PROVISION_SQL = "INSERT INTO leave_tracker (employee_id, leave_year, total_leaves, "
+            + "used_leaves, status, created_date, updated_date) SELECT ?, ?, ?, 0, 'PENDING', ?, ? FROM employee "
+            + "WHERE id = ?";
+
+    private final LeaveTrackerRepo leaveTrackerRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TtlCache<Integer, Balance> balances;
+
+    public LeaveBalanceService(LeaveTrackerRepo leaveTrackerRepo, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${leave.balance-cache.max-size:10000}") int maxSize,
+                               @Value("${leave.balance-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.leaveTrackerRepo = leaveTrackerRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.balances = new TtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    // This year's balance; an employee without a tracker yet has the full default allowance
+    @Transactional(readOnly = true)
+    public LeaveTrackerDTO getBalance(int employeeId) {
+        Balance balance = balances.getOrLoad(employeeId, id -> leaveTrackerRepo
+                .findByEmployeeIdAndLeaveYear(id, currentYear())
+                .map(tracker -> new Balance(
+                        tracker.getTotalLeaves() != null ? tracker.getTotalLeaves() : DEFAULT_TOTAL_LEAVES,
+                        tracker.getUsedLeaves() != null ? tracker.getUsedLeaves() : 0))
+                .orElse(Balance.DEFAULT));
+        return new LeaveTrackerDTO(employeeId, balance.totalLeaves(), balance.usedLeaves());
+    }
+
+    // Id of the year's tracker, provisioning it first if the employee has none; null for an unknown employee.
+    // Runs in its own transaction, whose first read comes after the insert, so a tracker committed by a
+    // concurrent call (the duplicate key) is visible to the lookup. The caller's snapshot may predate it.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Integer provisionEmployee(Integer employeeId, int year) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.update(PROVISION_SQL, employeeId, year, DEFAULT_TOTAL_LEAVES, now, now, employeeId);
+        } catch (DuplicateKeyException e) {
+            log.debug("Leave tracker of employee {} for {} was provisioned concurrently", employeeId, year);
+        }
+        return leaveTrackerRepo.findBalanceTrackerId(employeeId, year);
+    }
+
+    // Within the transaction that creates the employee, so neither exists without the other
+    public void provisionNewEmployee(Integer employeeId) {
+        LeaveTracker tracker = new LeaveTracker();
+        tracker.setEmployeeId(employeeId);
+        tracker.setLeaveYear(currentYear());
+        tracker.setTotalLeaves(DEFAULT_TOTAL_LEAVES);
+        tracker.setUsedLeaves(0);
+        leaveTrackerRepo.save(tracker);
+        evict(employeeId);
+    }
+
+    public void evict(Integer employeeId) {
+        if (employeeId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    balances.evict(employeeId);
+                }
+            });
+        } else {
+            balances.evict(employeeId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void provisionOnStartup() {
+        provisionCurrentYear();
+    }
+
+    @Scheduled(cron = "${leave.year.rollover-cron:0 5 0 1 1 *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rollOver() {
+        provisionCurrentYear();
+    }
+
+    private void provisionCurrentYear() {
+        int year = currentYear();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            // Balances kept before LEAVE_YEAR existed become this year's, so nobody's used days reset
+            List<Integer> unassigned = leaveTrackerRepo.findUnassignedBalanceTrackerIds();
+            if (!unassigned.isEmpty()) {
+                Integer claimed = transaction.execute(status -> leaveTrackerRepo.assignLeaveYear(unassigned, year));
+                log.info("Assigned {} existing leave balances to {}", claimed, year);
+            }
+            Integer provisioned = transaction.execute(status ->
+                    leaveTrackerRepo.provisionYear(year, DEFAULT_TOTAL_LEAVES, LocalDateTime.now()));
+            if (provisioned != null && provisioned > 0) {
+                log.info("Provisioned {} leave balances for {}", provisioned, year);
+            }
+        } catch (DataAccessException e) {
+            // Another node provisioned the year at the same time
+            log.warn("Leave balance provisioning for {} skipped: {}", year, e.getMessage());
+        }
+        balances.clear();
+    }
+
+    private static int currentYear() {
+        return Year.now().getValue();
+    }
+
+    private record Balance(int totalLeaves, int usedLeaves) {
+        static final Balance DEFAULT = new Balance(DEFAULT_TOTAL_LEAVES, 0);
+    }
+}
@@ -0,0 +1,263 @@
+package com.hr.service;
+
+import com.hr.dto.LeaveAbsenceDTO;
+import com.hr.dto.LeaveHeatmapDTO;
+import com.hr.entity.Compose;
+import com.hr.entity.Employee;
+import com.hr.leave.LeaveIntervalIndex;
+import com.hr.leave.LeaveIntervalIndex.Leave;
+import com.hr.repository.ComposeRepo;
+import com.hr.repository.EmployeeRepo;
+import com.hr.repository.projection.ApprovedLeaveRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory calendar of approved leave, one {@link LeaveIntervalIndex} per
+ * department, for "who is out between X and Y" and "is anyone out today".
+ * Month heatmaps (people out per day, per department) are counted from the
+ * index the first time a month is asked for and kept; a leave change
+ * recounts only the months its old and new dates fall in.
+ *
+ * Loaded from the approved leave requests and then kept current by
+ * {@link #leaveUpdated} whenever a request's status changes; changes are
+ * applied after commit. Where each leave is filed is remembered, so a change
+ * rebuilds only the departments and recounts only the months it touches. The
+ * department map is replaced on every change, so queries read it without
+ * locking. Leaves approved outside this
+ * application, and employees moving department, are picked up by a periodic
+ * full reload.
+ */
+@Slf4j
+@Service
+public class LeaveCalendarService {
+
+    private static final String UNASSIGNED = "Unassigned";
+
+    private final ComposeRepo composeRepo;
+    private final EmployeeRepo employeeRepo;
+    private final DepartmentHeadcountService departmentHeadcountService;
+    private final long reloadIntervalMillis;
+
+    private volatile Map<String, LeaveIntervalIndex> departments = Map.of();
+    // People out on each day of the month, per department and month counted so far
+    private final Map<MonthKey, int[]> heatmaps = new ConcurrentHashMap<>();
+    // Department and interval of every leave in the calendar; only used under the monitor
+    private final Map<Integer, Filed> filed = new HashMap<>();
+    private volatile long loadedAt = -1;
+
+    public LeaveCalendarService(ComposeRepo composeRepo, EmployeeRepo employeeRepo,
+                                DepartmentHeadcountService departmentHeadcountService,
+                                @Value("${leave.calendar.reload-minutes:10}") long reloadIntervalMinutes) {
+        this.composeRepo = composeRepo;
+        this.employeeRepo = employeeRepo;
+        this.departmentHeadcountService = departmentHeadcountService;
+        this.reloadIntervalMillis = reloadIntervalMinutes * 60_000;
+    }
+
+    // Approved leaves overlapping [from, to], for one department (any case) or all when department is null
+    public List<LeaveAbsenceDTO> whoIsOut(LocalDate from, LocalDate to, String department) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        List<LeaveAbsenceDTO> out = new ArrayList<>();
+        current().forEach((name, index) -> {
+            if (department == null || department.equalsIgnoreCase(name)) {
+                for (Leave leave : index.overlapping(from, to)) {
+                    out.add(new LeaveAbsenceDTO(leave.leaveId(), leave.employeeId(), name, leave.fromDate(), leave.toDate()));
+                }
+            }
+        });
+        out.sort(Comparator.comparing(LeaveAbsenceDTO::getFromDate).thenComparing(LeaveAbsenceDTO::getLeaveId));
+        return out;
+    }
+
+    // Departments with at least one person on approved leave that day
+    public List<String> departmentsOut(LocalDate day, String department) {
+        List<String> out = new ArrayList<>();
+        current().forEach((name, index) -> {
+            if ((department == null || department.equalsIgnoreCase(name)) && index.anyOn(day)) {
+                out.add(name);
+            }
+        });
+        out.sort(null);
+        return out;
+    }
+
+    // Day-by-day count of people out in each department (or the one given) with approved leave that month
+    public LeaveHeatmapDTO heatmap(YearMonth month, String department) {
+        Map<String, LeaveIntervalIndex> current = current();
+        Map<String, Long> headcounts = departmentHeadcountService.getCounts();
+        Set<String> names = new TreeSet<>(current.keySet());
+        names.addAll(headcounts.keySet());
+        if (department != null) {
+            names.removeIf(name -> !department.equalsIgnoreCase(name));
+        }
+
+        LeaveHeatmapDTO heatmap = new LeaveHeatmapDTO(month.getYear(), month.getMonthValue(), month.lengthOfMonth());
+        int[] none = new int[month.lengthOfMonth()];
+        for (String name : names) {
+            int[] out = current.containsKey(name) ? counted(name, month) : none;
+            heatmap.getDepartments().add(name);
+            heatmap.getHeadcount().add(headcounts.getOrDefault(name, 0L));
+            heatmap.getOut().add(out.clone());
+        }
+        return heatmap;
+    }
+
+    private int[] counted(String department, YearMonth month) {
+        int[] out = heatmaps.get(new MonthKey(department, month));
+        return out != null ? out : countAndKeep(department, month);
+    }
+
+    private synchronized int[] countAndKeep(String department, YearMonth month) {
+        return heatmaps.computeIfAbsent(new MonthKey(department, month),
+                key -> count(departments.getOrDefault(department, LeaveIntervalIndex.EMPTY), month));
+    }
+
+    // People rather than leaves: overlapping leaves of one employee count once a day
+    private static int[] count(LeaveIntervalIndex index, YearMonth month) {
+        LocalDate first = month.atDay(1);
+        LocalDate last = month.atEndOfMonth();
+        int firstDay = (int) first.toEpochDay();
+        int lastDay = (int) last.toEpochDay();
+        Map<Integer, BitSet> daysOut = new HashMap<>();
+        for (Leave leave : index.overlapping(first, last)) {
+            daysOut.computeIfAbsent(leave.employeeId(), id -> new BitSet(month.lengthOfMonth()))
+                    .set(Math.max(leave.firstDay(), firstDay) - firstDay, Math.min(leave.lastDay(), lastDay) - firstDay + 1);
+        }
+        int[] out = new int[month.lengthOfMonth()];
+        for (BitSet days : daysOut.values()) {
+            for (int day = days.nextSetBit(0); day >= 0; day = days.nextSetBit(day + 1)) {
+                out[day]++;
+            }
+        }
+        return out;
+    }
+
+    // Report a leave request whose status or dates changed; only approved requests with both dates are kept
+    public void leaveUpdated(Compose compose) {
+        if (compose.getId() == null) {
+            return;
+        }
+        Leave leave = null;
+        String department = null;
+        if ("APPROVED".equals(compose.getStatus()) && compose.getParentUkid() != null
+                && compose.getFromDate() != null && compose.getToDate() != null
+                && !compose.getToDate().isBefore(compose.getFromDate())) {
+            leave = Leave.of(compose.getId(), compose.getParentUkid(), compose.getFromDate(), compose.getToDate());
+            department = departmentOf(employeeRepo.findById(compose.getParentUkid()).map(Employee::getDepartment).orElse(null));
+        }
+        Leave approved = leave;
+        String approvedDepartment = department;
+        Runnable apply = () -> apply(compose.getId(), approved, approvedDepartment);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private synchronized void apply(int leaveId, Leave leave, String department) {
+        if (loadedAt < 0) {
+            return; // Not loaded yet, the first load will include this change
+        }
+        Filed before = filed.get(leaveId);
+        Filed after = leave != null ? new Filed(department, leave) : null;
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        // Months to recount: those the leave covered before the change and those it covers now
+        Set<MonthKey> touched = new HashSet<>();
+        Map<String, LeaveIntervalIndex> next = new HashMap<>(departments);
+        if (before != null) {
+            addMonths(touched, before.department(), before.leave());
+            LeaveIntervalIndex index = next.get(before.department()).without(leaveId);
+            if (index.size() == 0) {
+                next.remove(before.department());
+            } else {
+                next.put(before.department(), index);
+            }
+            filed.remove(leaveId);
+        }
+        if (after != null) {
+            addMonths(touched, department, leave);
+            next.put(department, next.getOrDefault(department, LeaveIntervalIndex.EMPTY).with(leave));
+            filed.put(leaveId, after);
+        }
+        departments = next;
+
+        for (MonthKey key : touched) {
+            heatmaps.computeIfPresent(key, (k, out) -> count(next.getOrDefault(k.department(), LeaveIntervalIndex.EMPTY), k.month()));
+        }
+    }
+
+    private static void addMonths(Set<MonthKey> months, String department, Leave leave) {
+        YearMonth last = YearMonth.from(leave.toDate());
+        for (YearMonth month = YearMonth.from(leave.fromDate()); !month.isAfter(last); month = month.plusMonths(1)) {
+            months.add(new MonthKey(department, month));
+        }
+    }
+
+    private Map<String, LeaveIntervalIndex> current() {
+        if (loadedAt < 0 || System.currentTimeMillis() - loadedAt > reloadIntervalMillis) {
+            reloadIfStale();
+        }
+        return departments;
+    }
+
+    private synchronized void reloadIfStale() {
+        if (loadedAt >= 0 && System.currentTimeMillis() - loadedAt <= reloadIntervalMillis) {
+            return;
+        }
+        Map<String, List<Leave>> leaves = new HashMap<>();
+        filed.clear();
+        for (ApprovedLeaveRow row : composeRepo.findApprovedLeaves()) {
+            if (row.getToDate().isBefore(row.getFromDate())) {
+                continue;
+            }
+            String department = departmentOf(row.getDepartment());
+            Leave leave = Leave.of(row.getLeaveId(), row.getEmployeeId(), row.getFromDate(), row.getToDate());
+            leaves.computeIfAbsent(department, name -> new ArrayList<>()).add(leave);
+            filed.put(leave.leaveId(), new Filed(department, leave));
+        }
+        Map<String, LeaveIntervalIndex> next = new HashMap<>();
+        leaves.forEach((name, list) -> next.put(name, LeaveIntervalIndex.of(list)));
+        departments = next;
+        heatmaps.clear();
+        loadedAt = System.currentTimeMillis();
+        log.debug("Reloaded leave calendar: {} departments", next.size());
+    }
+
+    private static String departmentOf(String department) {
+        return department != null ? department : UNASSIGNED;
+    }
+
+    private record MonthKey(String department, YearMonth month) {
+    }
+
+    private record Filed(String department, Leave leave) {
+    }
+}
@@ -2,18 +2,34 @@ package com.hr.service;
 
 import com.hr.dto.LeaveTrackerDTO;
 import com.hr.dto.LeaveRequestDTO;
+import com.hr.entity.Compose;
 import com.hr.entity.Employee;
+import com.hr.entity.LeaveLedgerEntry;
 import com.hr.entity.LeaveTracker;
 import com.hr.entity.LeaveRequest;
+import com.hr.repository.ComposeRepo;
 import com.hr.repository.EmployeeRepo;
+import com.hr.repository.LeaveLedgerRepo;
 import com.hr.repository.LeaveTrackerRepo;
 import com.hr.repository.LeaveRequestRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
@@ -27,15 +43,27 @@ import java.util.Optional;
 @Transactional
 public class LeaveService {
 
+    private static final int BACKFILL_CHUNK = 500;
+    // Stand-ins for an open end of a date range, within the DATE column's range
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final String LEDGER_INSERT_SQL = "INSERT INTO leave_ledger (compose_id, entry_type, employee_id, "
+            + "tracker_id, days, created_date) VALUES (?, ?, ?, ?, ?, ?)";
+
     private final LeaveTrackerRepo leaveTrackerRepo;
+    private final LeaveLedgerRepo leaveLedgerRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
     private final LeaveRequestRepo leaveRequestRepo;
     private final EmployeeRepo employeeRepo;
+    private final EmployeeEnrichmentService employeeEnrichmentService;
+    private final LeaveBalanceService leaveBalanceService;
+    private final ComposeRepo composeRepo;
+    private final LeaveCalendarService leaveCalendarService;
 
     public List<LeaveTrackerDTO> getAllLeaves() {
-        List<LeaveTracker> leaves = leaveTrackerRepo.findAll();
-        return leaves.stream()
-                .map(this::convertToDTO)
-                .toList();
+        return convertToDTOs(leaveTrackerRepo.findAll());
     }
 
     public Optional<LeaveTrackerDTO> getLeaveById(Integer id) {
@@ -44,10 +72,7 @@ public class LeaveService {
     }
 
     public List<LeaveTrackerDTO> getLeavesByEmployee(Integer employeeId) {
-        List<LeaveTracker> leaves = leaveTrackerRepo.findByEmployeeId(employeeId);
-        return leaves.stream()
-                .map(this::convertToDTO)
-                .toList();
+        return convertToDTOs(leaveTrackerRepo.findByEmployeeId(employeeId));
     }
 
     public LeaveTrackerDTO createLeave(LeaveTrackerDTO leaveDTO) {
@@ -62,6 +87,7 @@ public class LeaveService {
                 .map(existing -> {
                     updateEntityFromDTO(existing, leaveDTO);
                     LeaveTracker updated = leaveTrackerRepo.save(existing);
+                    leaveBalanceService.evict(updated.getEmployeeId());
                     log.info("Updated leave request with ID: {}", updated.getId());
                     return convertToDTO(updated);
                 });
@@ -71,6 +97,7 @@ public class LeaveService {
         return leaveTrackerRepo.findById(id)
                 .map(leave -> {
                     leaveTrackerRepo.delete(leave);
+                    leaveBalanceService.evict(leave.getEmployeeId());
                     log.info("Deleted leave request with ID: {}", id);
                     return true;
                 })
@@ -81,41 +108,65 @@ public class LeaveService {
         List<LeaveTracker> leaves = leaveTrackerRepo.findAll().stream()
                 .filter(l -> status == null || l.getStatus().equalsIgnoreCase(status))
                 .toList();
-        
-        return leaves.stream()
-                .map(this::convertToDTO)
-                .toList();
+
+        return convertToDTOs(leaves);
     }
 
+    // Leaves overlapping the range (yyyy-MM-dd, either end open), by the indexed START_DATE/END_DATE columns
+    @Transactional(readOnly = true)
     public List<LeaveTrackerDTO> getLeavesByDateRange(String fromDate, String toDate) {
-        List<LeaveTracker> leaves = leaveTrackerRepo.findAll().stream()
-                .filter(l -> isWithinDateRange(l.getFromDate(), l.getToDate(), fromDate, toDate))
-                .toList();
-        
-        return leaves.stream()
-                .map(this::convertToDTO)
-                .toList();
+        LocalDate from = fromDate != null ? LocalDate.parse(fromDate) : EARLIEST_DATE;
+        LocalDate to = toDate != null ? LocalDate.parse(toDate) : LATEST_DATE;
+        return convertToDTOs(leaveTrackerRepo.findOverlapping(from, to));
     }
 
-    private boolean isWithinDateRange(String leaveFromDate, String leaveToDate, String fromDate, String toDate) {
+    // Fill START_DATE/END_DATE on rows written before the columns existed
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillLeaveDates() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int afterId = 0;
+        int filled = 0;
         try {
-            LocalDate leaveStart = LocalDate.parse(leaveFromDate, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            LocalDate leaveEnd = LocalDate.parse(leaveToDate, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            LocalDate rangeStart = fromDate != null ? LocalDate.parse(fromDate, DateTimeFormatter.ofPattern("yyyy-MM-dd")) : null;
-            LocalDate rangeEnd = toDate != null ? LocalDate.parse(toDate, DateTimeFormatter.ofPattern("yyyy-MM-dd")) : null;
-            
-            if (rangeStart != null && leaveEnd.isBefore(rangeStart)) return false;
-            if (rangeEnd != null && leaveStart.isAfter(rangeEnd)) return false;
-            return true;
-        } catch (Exception e) {
-            log.warn("Error parsing dates for leave date range filter: {}", e.getMessage());
-            return true;
+            List<LeaveTracker> chunk;
+            while (!(chunk = leaveTrackerRepo.findDatesToBackfill(afterId, PageRequest.of(0, BACKFILL_CHUNK))).isEmpty()) {
+                List<LeaveTracker> rows = chunk;
+                transaction.executeWithoutResult(status -> {
+                    rows.forEach(LeaveTracker::syncDates);
+                    leaveTrackerRepo.saveAll(rows);
+                });
+                filled += rows.size();
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Leave date backfill stopped after {} rows: {}", filled, e.getMessage());
+            return;
+        }
+        if (filled > 0) {
+            log.info("Filled typed leave dates of {} rows", filled);
         }
     }
 
     // Conversion methods
     private LeaveTrackerDTO convertToDTO(LeaveTracker leave) {
-        LeaveTrackerDTO dto = LeaveTrackerDTO.builder()
+        LeaveTrackerDTO dto = toBaseDTO(leave);
+
+        // Calculate computed fields and add employee info
+        calculateComputedFields(dto);
+        return dto;
+    }
+
+    // List variant: employee info for all rows comes from one bulk lookup
+    private List<LeaveTrackerDTO> convertToDTOs(List<LeaveTracker> leaves) {
+        List<LeaveTrackerDTO> dtos = leaves.stream()
+                .map(this::toBaseDTO)
+                .toList();
+        employeeEnrichmentService.enrich(dtos, LeaveTrackerDTO::getEmployeeId, this::applyEmployee);
+        return dtos;
+    }
+
+    private LeaveTrackerDTO toBaseDTO(LeaveTracker leave) {
+        return LeaveTrackerDTO.builder()
                 .id(leave.getId())
                 .employeeId(leave.getEmployeeId())
                 .fromDate(leave.getFromDate())
@@ -129,10 +180,6 @@ public class LeaveService {
                 .createdDate(leave.getCreatedDate())
                 .updatedDate(leave.getUpdatedDate())
                 .build();
-
-        // Calculate computed fields and add employee info
-        calculateComputedFields(dto);
-        return dto;
     }
 
     private LeaveTracker convertToEntity(LeaveTrackerDTO dto) {
@@ -167,13 +214,12 @@ public class LeaveService {
 
     private void calculateNumberOfDays(LeaveTracker leave) {
         if (leave.getFromDate() != null && leave.getToDate() != null) {
-            try {
-                LocalDate fromDate = LocalDate.parse(leave.getFromDate(), DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                LocalDate toDate = LocalDate.parse(leave.getToDate(), DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                long days = ChronoUnit.DAYS.between(fromDate, toDate) + 1; // +1 to include both start and end date
+            if (leave.getStartDate() != null && leave.getEndDate() != null) {
+                long days = ChronoUnit.DAYS.between(leave.getStartDate(), leave.getEndDate()) + 1; // +1 to include both start and end date
                 leave.setNumberOfDays((int) days);
-            } catch (Exception e) {
-                log.warn("Error calculating number of days for leave: {}", e.getMessage());
+            } else {
+                log.warn("Error calculating number of days for leave: dates {} to {} are not yyyy-MM-dd",
+                        leave.getFromDate(), leave.getToDate());
                 leave.setNumberOfDays(1);
             }
         }
@@ -183,14 +229,16 @@ public class LeaveService {
         // Get employee information
         if (dto.getEmployeeId() != null) {
             Optional<Employee> employee = employeeRepo.findById(dto.getEmployeeId());
-            employee.ifPresent(emp -> {
-                dto.setEmployeeName(emp.getEmployeeName());
-                dto.setDepartment(emp.getDepartment());
-                dto.setDesignation(emp.getDesignation());
-            });
+            employee.ifPresent(emp -> applyEmployee(dto, emp));
         }
     }
 
+    private void applyEmployee(LeaveTrackerDTO dto, Employee emp) {
+        dto.setEmployeeName(emp.getEmployeeName());
+        dto.setDepartment(emp.getDepartment());
+        dto.setDesignation(emp.getDesignation());
+    }
+
     private String getStatusDisplay(String status) {
         return switch (status.toUpperCase()) {
             case "PENDING" -> "Pending";
@@ -235,33 +283,74 @@ public class LeaveService {
         return map;
     }
     
-    // Methods for leave balance management
+    // Methods for leave balance management; reads never create a tracker (see LeaveBalanceService)
+    @Transactional(readOnly = true)
     public LeaveTrackerDTO getLeaveBalance(int employeeId) {
-        Optional<LeaveTracker> tracker = leaveTrackerRepo.findFirstByEmployeeId(employeeId);
-        if (tracker.isPresent()) {
-            return convertToDTO(tracker.get());
-        } else {
-            // Create a new leave tracker if one doesn't exist
-            LeaveTracker newTracker = new LeaveTracker();
-            newTracker.setEmployeeId(employeeId);
-            newTracker.setTotalLeaves(40);
-            newTracker.setUsedLeaves(0);
-            LeaveTracker saved = leaveTrackerRepo.save(newTracker);
-            return convertToDTO(saved);
-        }
+        return leaveBalanceService.getBalance(employeeId);
     }
     
-    public void deductLeaves(Integer employeeId, Integer leaveDays) {
-        Optional<LeaveTracker> tracker = leaveTrackerRepo.findFirstByEmployeeId(employeeId);
-        if (tracker.isPresent()) {
-            LeaveTracker leaveTracker = tracker.get();
-            int currentUsed = leaveTracker.getUsedLeaves() != null ? leaveTracker.getUsedLeaves() : 0;
-            leaveTracker.setUsedLeaves(currentUsed + leaveDays);
-            leaveTrackerRepo.save(leaveTracker);
-            log.info("Deducted {} leave days from employee {}", leaveDays, employeeId);
-        } else {
-            throw new RuntimeException("Leave tracker not found for employee: " + employeeId);
+    // Sets a leave request's status. Approving deducts its days in the same transaction, so a request is
+    // never APPROVED without its deduction; a short balance throws IllegalStateException and changes nothing.
+    public Optional<Compose> updateRequestStatus(int composeId, String status) {
+        return composeRepo.findById(composeId).map(compose -> {
+            compose.setStatus(status);
+            Integer leaveDays = compose.getLeaveDays();
+            if ("APPROVED".equals(status) && leaveDays != null && leaveDays > 0
+                    && !deductLeaves(compose.getId(), compose.getParentUkid(), leaveDays, leaveYearOf(compose))) {
+                log.info("Leave request {} was already deducted", composeId);
+            }
+            Compose saved = composeRepo.save(compose);
+            leaveCalendarService.leaveUpdated(saved);
+            return saved;
+        });
+    }
+
+    // Leave is charged to the year it starts in; undated requests to the current year
+    private static int leaveYearOf(Compose compose) {
+        return compose.getFromDate() != null ? compose.getFromDate().getYear() : Year.now().getValue();
+    }
+
+    // Deducts an approved leave request from the leave year's balance at most once; false when it was already
+    // deducted. The ledger row goes in first, so a repeated or concurrent approval of the same request stops at
+    // its unique key before touching the tracker, and the tracker row is only locked by the one UPDATE.
+    public boolean deductLeaves(Integer composeId, Integer employeeId, Integer leaveDays, int leaveYear) {
+        if (leaveLedgerRepo.existsByComposeIdAndEntryType(composeId, LeaveLedgerEntry.DEDUCTION)) {
+            return false;
+        }
+        Integer trackerId = leaveTrackerRepo.findBalanceTrackerId(employeeId, leaveYear);
+        if (trackerId == null) {
+            trackerId = provisionTracker(employeeId, leaveYear);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            jdbcTemplate.update(LEDGER_INSERT_SQL, composeId, LeaveLedgerEntry.DEDUCTION, employeeId, trackerId,
+                    leaveDays, Timestamp.valueOf(now));
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        if (leaveTrackerRepo.deductIfAvailable(trackerId, leaveDays, now) == 0) {
+            // Rolls the ledger row back with the transaction
+            throw new IllegalStateException("Insufficient leave balance for employee " + employeeId
+                    + ": " + leaveDays + " days requested");
         }
+        leaveBalanceService.evict(employeeId);
+        log.info("Deducted {} leave days from employee {} for leave request {}", leaveDays, employeeId, composeId);
+        return true;
+    }
+
+    // Employees created outside EmployeeService since the last rollover, and leave in a year not rolled over
+    // yet, get their tracker on first deduction
+    private Integer provisionTracker(Integer employeeId, int leaveYear) {
+        Integer trackerId = leaveBalanceService.provisionEmployee(employeeId, leaveYear);
+        if (trackerId == null) {
+            throw new IllegalStateException("Leave tracker not found for employee: " + employeeId);
+        }
+        return trackerId;
+    }
+
+    @Transactional(readOnly = true)
+    public List<LeaveLedgerEntry> getLedger(Integer employeeId) {
+        return leaveLedgerRepo.findByEmployeeIdOrderByIdDesc(employeeId);
     }
     
     public boolean hasEnoughLeaves(int employeeId, Integer requestedDays) {
@@ -0,0 +1,195 @@
+package com.hr.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hr.repository.PayrollRepo;
+import com.hr.repository.projection.PayrollRegisterRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes the payroll register for a month as CSV or NDJSON directly to an
+ * output stream. Rows are scrolled from the database and written one at a
+ * time, so memory use does not depend on the size of the month.
+ */
+@Slf4j
+@Service
+public class PayrollExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private record Column(String name, Function<PayrollRegisterRow, Object> value) { }
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("payrollId", PayrollRegisterRow::getPayrollId),
+            new Column("employeeId", PayrollRegisterRow::getEmployeeId),
+            new Column("employeeName", PayrollRegisterRow::getEmployeeName),
+            new Column("department", PayrollRegisterRow::getDepartment),
+            new Column("designation", PayrollRegisterRow::getDesignation),
+            new Column("payrollMonth", PayrollRegisterRow::getPayrollMonth),
+            new Column("payrollYear", PayrollRegisterRow::getPayrollYear),
+            new Column("basicSalary", PayrollRegisterRow::getBasicSalary),
+            new Column("hra", PayrollRegisterRow::getHra),
+            new Column("transportAllowance", PayrollRegisterRow::getTransportAllowance),
+            new Column("medicalAllowance", PayrollRegisterRow::getMedicalAllowance),
+            new Column("otherAllowances", PayrollRegisterRow::getOtherAllowances),
+            new Column("grossSalary", PayrollRegisterRow::getGrossSalary),
+            new Column("pfDeduction", PayrollRegisterRow::getPfDeduction),
+            new Column("esiDeduction", PayrollRegisterRow::getEsiDeduction),
+            new Column("professionalTax", PayrollRegisterRow::getProfessionalTax),
+            new Column("incomeTax", PayrollRegisterRow::getIncomeTax),
+            new Column("insuranceDeduction", PayrollRegisterRow::getInsuranceDeduction),
+            new Column("otherDeductions", PayrollRegisterRow::getOtherDeductions),
+            new Column("totalDeductions", PayrollRegisterRow::getTotalDeductions),
+            new Column("netSalary", PayrollRegisterRow::getNetSalary),
+            new Column("workingDays", PayrollRegisterRow::getWorkingDays),
+            new Column("presentDays", PayrollRegisterRow::getPresentDays),
+            new Column("status", PayrollRegisterRow::getStatus));
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PayrollRepo payrollRepo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PayrollExportService(PayrollRepo payrollRepo, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.payrollRepo = payrollRepo;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public static Format parseFormat(String format) {
+        return Format.valueOf(format.trim().toUpperCase());
+    }
+
+    public String fileName(String month, Integer year, Format format) {
+        return "payroll-register-" + month.toLowerCase() + "-" + year + "." + format.getExtension();
+    }
+
+    // Called from the response thread; the stream keeps its connection only for the duration of the export
+    public void writeRegister(String month, Integer year, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            long rows = readOnlyTransaction.execute(status -> {
+                try (Stream<PayrollRegisterRow> register = payrollRepo.streamRegister(month, year)) {
+                    return format == Format.CSV ? writeCsv(register, writer) : writeNdjson(register, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            log.info("Exported {} payroll register rows for {} {} as {}", rows, month, year, format);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeCsv(Stream<PayrollRegisterRow> register, Writer writer) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) writer.write(',');
+            writer.write(COLUMNS.get(i).name());
+        }
+        writer.write('\n');
+
+        long count = 0;
+        for (PayrollRegisterRow row : (Iterable<PayrollRegisterRow>) register::iterator) {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) writer.write(',');
+                writeCsvValue(writer, COLUMNS.get(i).value().apply(row));
+            }
+            writer.write('\n');
+            count++;
+        }
+        return count;
+    }
+
+    private void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Double amount) {
+            writer.write(formatAmount(amount));
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+
+    private long writeNdjson(Stream<PayrollRegisterRow> register, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+
+        long count = 0;
+        for (PayrollRegisterRow row : (Iterable<PayrollRegisterRow>) register::iterator) {
+            generator.writeStartObject();
+            for (Column column : COLUMNS) {
+                Object value = column.value().apply(row);
+                generator.writeFieldName(column.name());
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Double amount) {
+                    generator.writeNumber(new BigDecimal(formatAmount(amount)));
+                } else if (value instanceof Integer number) {
+                    generator.writeNumber(number);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            count++;
+        }
+        if (count > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        return count;
+    }
+
+    private String formatAmount(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+}
@@ -0,0 +1,215 @@
+package com.hr.service;
+
+import com.hr.dto.PayrollGenerationResult;
+import com.hr.entity.Payroll;
+import com.hr.payroll.PayrollBatch;
+import com.hr.payroll.PayrollEngine;
+import com.hr.payroll.PayrollRuleBook;
+import com.hr.repository.EmployeeRepo;
+import com.hr.repository.PayrollRepo;
+import com.hr.repository.projection.EmployeeSalaryRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Set-based payroll generation for a whole month.
+ *
+ * Existing payroll keys are fetched in one query, each chunk is calculated as
+ * one fixed-point batch and written with JDBC batch inserts, committing once per
+ * chunk. IDENTITY keys stop Hibernate from batching inserts, hence plain JDBC.
+ */
+@Slf4j
+@Service
+public class PayrollGenerationService {
+
+    private static final String INSERT_SQL = "INSERT INTO payroll (employee_id, basic_salary, hra, transport_allowance, "
+            + "medical_allowance, other_allowances, pf_deduction, esi_deduction, professional_tax, income_tax, "
+            + "insurance_deduction, other_deductions, gross_salary, total_deductions, net_salary, payroll_month, "
+            + "payroll_year, period, working_days, present_days, leave_days, status, department, created_date, updated_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Called once before the first chunk and after every committed chunk.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int processed, int total, PayrollGenerationResult partial);
+    }
+
+    private final EmployeeRepo employeeRepo;
+    private final PayrollRepo payrollRepo;
+    private final PayrollSummaryService payrollSummaryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public PayrollGenerationService(EmployeeRepo employeeRepo,
+                                    PayrollRepo payrollRepo,
+                                    PayrollSummaryService payrollSummaryService,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${payroll.generation.chunk-size:500}") int chunkSize) {
+        this.employeeRepo = employeeRepo;
+        this.payrollRepo = payrollRepo;
+        this.payrollSummaryService = payrollSummaryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public PayrollGenerationResult generate(String month, Integer year) {
+        return generate(month, year, (processed, total, partial) -> { }, () -> false);
+    }
+
+    // Cancellation is checked between chunks; chunks already committed stay in place
+    public PayrollGenerationResult generate(String month, Integer year, ProgressListener listener,
+                                            BooleanSupplier cancelRequested) {
+        long start = System.currentTimeMillis();
+
+        List<EmployeeSalaryRow> employees = employeeRepo.findActiveSalaryRows();
+        Integer period = Payroll.periodOf(month, year);
+        Set<Integer> existing = period != null
+                ? payrollRepo.findEmployeeIdsWithPayroll(period)
+                : payrollRepo.findEmployeeIdsWithPayrollForMonth(month, year);
+        List<EmployeeSalaryRow> pending = employees.stream()
+                .filter(e -> !existing.contains(e.getId()))
+                .toList();
+
+        PayrollGenerationResult result = PayrollGenerationResult.builder()
+                .payrollMonth(month)
+                .payrollYear(year)
+                .eligibleEmployees(employees.size())
+                .skippedExisting(employees.size() - pending.size())
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        PayrollBatch batch = new PayrollBatch(chunkSize);
+        // Rules are resolved once per run, so a reload mid-run cannot mix rate cards within a month
+        PayrollEngine engine = PayrollRuleBook.current().engineFor(period);
+        int processed = 0;
+        listener.onProgress(processed, pending.size(), result);
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            if (cancelRequested.getAsBoolean()) {
+                result.setCancelled(true);
+                log.info("Payroll generation {} {} cancelled after {}/{} employees", month, year, processed, pending.size());
+                break;
+            }
+            List<EmployeeSalaryRow> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+
+            insertChunk(calculate(chunk, engine, batch, month, year, now, result), result);
+
+            processed += chunk.size();
+            listener.onProgress(processed, pending.size(), result);
+            log.debug("Payroll generation {} {}: {}/{} employees processed", month, year, processed, pending.size());
+        }
+
+        result.setDurationMillis(System.currentTimeMillis() - start);
+        result.setCompletedAt(LocalDateTime.now());
+        log.info("Generated {} payrolls for {} {} ({} already present, {} failed) in {} ms",
+                result.getGenerated(), month, year, result.getSkippedExisting(), result.getFailed(),
+                result.getDurationMillis());
+        return result;
+    }
+
+    // Whole chunk goes through the payroll engine as one columnar batch
+    private List<Calculated> calculate(List<EmployeeSalaryRow> chunk, PayrollEngine engine, PayrollBatch batch,
+                                       String month, Integer year, LocalDateTime now, PayrollGenerationResult result) {
+        batch.clear();
+        List<Calculated> rows = new ArrayList<>(chunk.size());
+        for (EmployeeSalaryRow employee : chunk) {
+            if (employee.getSalary() == null) {
+                recordFailure(result, employee, "No salary on record");
+                continue;
+            }
+            Payroll payroll = Payroll.draft(employee.getId(), employee.getSalary(), month, year,
+                    employee.getDepartment(), now);
+            batch.add(PayrollEngine.toPaise(payroll.getBasicSalary()), PayrollEngine.toPaise(payroll.getOtherAllowances()),
+                    PayrollEngine.toPaise(payroll.getOtherDeductions()), payroll.getWorkingDays(), payroll.getPresentDays());
+            rows.add(new Calculated(employee, payroll));
+        }
+
+        engine.calculate(batch);
+        for (int row = 0; row < rows.size(); row++) {
+            rows.get(row).payroll().applyCalculation(batch, row);
+        }
+        return rows;
+    }
+
+    // One transaction per chunk; if the batch fails, retry row by row so only the bad rows are reported
+    private void insertChunk(List<Calculated> rows, PayrollGenerationResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Payroll> payrolls = rows.stream().map(Calculated::payroll).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, payrolls, payrolls.size(), this::bind);
+                payrollSummaryService.addedAll(payrolls);
+            });
+            result.setGenerated(result.getGenerated() + payrolls.size());
+        } catch (DataAccessException e) {
+            log.warn("Batch insert of {} payrolls failed, retrying individually: {}", payrolls.size(), e.getMessage());
+            for (Calculated row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row.payroll()));
+                        payrollSummaryService.added(row.payroll());
+                    });
+                    result.setGenerated(result.getGenerated() + 1);
+                } catch (DataAccessException rowError) {
+                    recordFailure(result, row.employee(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, Payroll p) throws SQLException {
+        ps.setInt(1, p.getEmployeeId());
+        ps.setDouble(2, p.getBasicSalary());
+        ps.setDouble(3, p.getHra());
+        ps.setDouble(4, p.getTransportAllowance());
+        ps.setDouble(5, p.getMedicalAllowance());
+        ps.setDouble(6, p.getOtherAllowances());
+        ps.setDouble(7, p.getPfDeduction());
+        ps.setDouble(8, p.getEsiDeduction());
+        ps.setDouble(9, p.getProfessionalTax());
+        ps.setDouble(10, p.getIncomeTax());
+        ps.setDouble(11, p.getInsuranceDeduction());
+        ps.setDouble(12, p.getOtherDeductions());
+        ps.setDouble(13, p.getGrossSalary());
+        ps.setDouble(14, p.getTotalDeductions());
+        ps.setDouble(15, p.getNetSalary());
+        ps.setString(16, p.getPayrollMonth());
+        ps.setInt(17, p.getPayrollYear());
+        ps.setObject(18, p.getPeriod(), Types.INTEGER);
+        ps.setInt(19, p.getWorkingDays());
+        ps.setInt(20, p.getPresentDays());
+        ps.setInt(21, p.getLeaveDays());
+        ps.setString(22, p.getStatus());
+        ps.setString(23, p.getDepartment());
+        ps.setTimestamp(24, Timestamp.valueOf(p.getCreatedDate()));
+        ps.setTimestamp(25, Timestamp.valueOf(p.getUpdatedDate()));
+    }
+
+    private void recordFailure(PayrollGenerationResult result, EmployeeSalaryRow employee, String reason) {
+        result.getFailures().add(new PayrollGenerationResult.Failure(employee.getId(), employee.getEmployeeName(), reason));
+        result.setFailed(result.getFailed() + 1);
+    }
+
+    private record Calculated(EmployeeSalaryRow employee, Payroll payroll) { }
+}
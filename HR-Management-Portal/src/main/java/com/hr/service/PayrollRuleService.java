@@ -0,0 +1,245 @@
+package com.hr.service;
+
+import com.hr.dto.PayrollRateOverrides;
+import com.hr.dto.PayrollRuleSetDTO;
+import com.hr.dto.TaxSlabDTO;
+import com.hr.entity.PayrollRule;
+import com.hr.payroll.PayrollEngine;
+import com.hr.payroll.PayrollRates;
+import com.hr.payroll.PayrollRuleBook;
+import com.hr.repository.PayrollRuleRepo;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Versioned payroll rules per financial year (PAYROLL_RULE).
+ *
+ * The latest version of every year is compiled into a {@link PayrollRuleBook}
+ * and installed in one swap. Payroll calculations only read the installed book,
+ * so they never touch the table or wait on a reload. Each node polls the newest
+ * rule id and recompiles only when it changes.
+ */
+@Slf4j
+@Service
+public class PayrollRuleService {
+
+    private final PayrollRuleRepo payrollRuleRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Newest rule id compiled into the installed book
+    private volatile Integer loadedRuleId;
+    private volatile boolean loaded;
+
+    public PayrollRuleService(PayrollRuleRepo payrollRuleRepo, PlatformTransactionManager transactionManager) {
+        this.payrollRuleRepo = payrollRuleRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // During context startup, before the web server takes requests that would calculate with the defaults
+    @PostConstruct
+    public void loadOnStartup() {
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            log.warn("Payroll rules not loaded at startup, retrying on the next poll: {}", e.getMessage());
+        }
+    }
+
+    // Synchronized so that a slower reload of an older MAX(id) cannot install its book after a newer one
+    @Scheduled(fixedDelayString = "${payroll.rules.reload-interval-ms:60000}",
+            initialDelayString = "${payroll.rules.reload-interval-ms:60000}")
+    public synchronized void refresh() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Integer latestId = payrollRuleRepo.findLatestId();
+            if (loaded && Objects.equals(latestId, loadedRuleId)) {
+                return;
+            }
+            PayrollRuleBook book;
+            try {
+                book = compile(payrollRuleRepo.findEffectiveRules());
+            } catch (IllegalArgumentException e) {
+                // Keep calculating with the rules already installed
+                log.error("Payroll rules not reloaded, stored rules are invalid: {}", e.getMessage());
+                return;
+            }
+            PayrollRuleBook.install(book);
+            loadedRuleId = latestId;
+            loaded = true;
+            log.info("Payroll rules loaded for financial years {}", Arrays.toString(book.getFinancialYears()));
+        });
+    }
+
+    // Writes a complete new version for the year and installs it; omitted rates keep their effective values
+    public PayrollRuleSetDTO publish(PayrollRuleSetDTO request) {
+        Integer financialYear = request.getFinancialYear();
+        if (financialYear == null || financialYear < 2000 || financialYear > 2100) {
+            throw new IllegalArgumentException("financialYear must be the first calendar year of the financial year, e.g. 2025");
+        }
+        PayrollRates rates = applyOverrides(PayrollRuleBook.current().ratesForFinancialYear(financialYear), request);
+
+        Integer version = transactionTemplate.execute(status -> {
+            Integer latest = payrollRuleRepo.findLatestVersion(financialYear);
+            int next = latest != null ? latest + 1 : 1;
+            payrollRuleRepo.saveAll(toRules(financialYear, next, rates));
+            return next;
+        });
+        log.info("Published payroll rules version {} for financial year {}", version, financialYear);
+
+        refresh();
+        return getRules(financialYear);
+    }
+
+    // Rules in effect for one financial year, straight from the installed book
+    public PayrollRuleSetDTO getRules(int financialYear) {
+        PayrollRuleBook book = PayrollRuleBook.current();
+        PayrollRuleSetDTO dto = toDto(book.ratesForFinancialYear(financialYear));
+        dto.setFinancialYear(financialYear);
+        dto.setVersion(book.versionForFinancialYear(financialYear));
+        dto.setDefinedForFinancialYear(book.sourceFinancialYear(financialYear));
+        return dto;
+    }
+
+    // Every financial year that has published rules
+    public List<PayrollRuleSetDTO> getAllRules() {
+        List<PayrollRuleSetDTO> rules = new ArrayList<>();
+        for (int financialYear : PayrollRuleBook.current().getFinancialYears()) {
+            rules.add(getRules(financialYear));
+        }
+        return rules;
+    }
+
+    // Overrides from a request on top of a base rate card
+    public PayrollRates applyOverrides(PayrollRates base, PayrollRateOverrides overrides) {
+        long[] slabFloors = base.getSlabFloors();
+        int[] slabBps = base.getSlabBps();
+        if (overrides.getTaxSlabs() != null) {
+            List<TaxSlabDTO> slabs = new ArrayList<>(overrides.getTaxSlabs());
+            for (TaxSlabDTO slab : slabs) {
+                if (slab == null || slab.getFrom() == null || slab.getFrom() < 0) {
+                    throw new IllegalArgumentException("Each tax slab needs a non-negative 'from' amount");
+                }
+            }
+            slabs.sort(Comparator.comparing(TaxSlabDTO::getFrom));
+            slabFloors = new long[slabs.size()];
+            slabBps = new int[slabs.size()];
+            for (int i = 0; i < slabs.size(); i++) {
+                slabFloors[i] = PayrollEngine.toPaise(slabs.get(i).getFrom());
+                slabBps[i] = basisPoints(slabs.get(i).getRatePercent(), "tax slab rate");
+            }
+        }
+        return new PayrollRates(
+                overrides.getHraPercent() != null ? basisPoints(overrides.getHraPercent(), "hraPercent") : base.getHraBps(),
+                overrides.getTransportAllowance() != null ? paise(overrides.getTransportAllowance(), "transportAllowance") : base.getTransportPaise(),
+                overrides.getMedicalAllowance() != null ? paise(overrides.getMedicalAllowance(), "medicalAllowance") : base.getMedicalPaise(),
+                overrides.getPfPercent() != null ? basisPoints(overrides.getPfPercent(), "pfPercent") : base.getPfBps(),
+                overrides.getEsiPercent() != null ? basisPoints(overrides.getEsiPercent(), "esiPercent") : base.getEsiBps(),
+                overrides.getProfessionalTax() != null ? paise(overrides.getProfessionalTax(), "professionalTax") : base.getProfessionalTaxPaise(),
+                overrides.getInsurancePercent() != null ? basisPoints(overrides.getInsurancePercent(), "insurancePercent") : base.getInsuranceBps(),
+                slabFloors, slabBps);
+    }
+
+    // Rows arrive ordered by financial year, rule type and threshold
+    private PayrollRuleBook compile(List<PayrollRule> rules) {
+        List<Integer> years = new ArrayList<>();
+        List<Integer> versions = new ArrayList<>();
+        List<PayrollRates> rates = new ArrayList<>();
+        int from = 0;
+        while (from < rules.size()) {
+            int financialYear = rules.get(from).getFinancialYear();
+            int to = from;
+            while (to < rules.size() && rules.get(to).getFinancialYear() == financialYear) {
+                to++;
+            }
+            years.add(financialYear);
+            versions.add(rules.get(from).getVersion());
+            rates.add(compileYear(rules.subList(from, to)));
+            from = to;
+        }
+        return new PayrollRuleBook(years.stream().mapToInt(Integer::intValue).toArray(),
+                versions.stream().mapToInt(Integer::intValue).toArray(), rates.toArray(new PayrollRates[0]));
+    }
+
+    private PayrollRates compileYear(List<PayrollRule> rules) {
+        PayrollRuleSetDTO overrides = new PayrollRuleSetDTO();
+        List<TaxSlabDTO> slabs = new ArrayList<>();
+        for (PayrollRule rule : rules) {
+            switch (rule.getRuleType()) {
+                case PayrollRule.HRA_PERCENT -> overrides.setHraPercent(rule.getRuleValue());
+                case PayrollRule.TRANSPORT_ALLOWANCE -> overrides.setTransportAllowance(rule.getRuleValue());
+                case PayrollRule.MEDICAL_ALLOWANCE -> overrides.setMedicalAllowance(rule.getRuleValue());
+                case PayrollRule.PF_PERCENT -> overrides.setPfPercent(rule.getRuleValue());
+                case PayrollRule.ESI_PERCENT -> overrides.setEsiPercent(rule.getRuleValue());
+                case PayrollRule.PROFESSIONAL_TAX -> overrides.setProfessionalTax(rule.getRuleValue());
+                case PayrollRule.INSURANCE_PERCENT -> overrides.setInsurancePercent(rule.getRuleValue());
+                case PayrollRule.TAX_SLAB -> slabs.add(new TaxSlabDTO(rule.getThreshold(), rule.getRuleValue()));
+                default -> log.warn("Unknown payroll rule type {} ignored", rule.getRuleType());
+            }
+        }
+        overrides.setTaxSlabs(slabs.isEmpty() ? null : slabs);
+        return applyOverrides(PayrollRates.DEFAULT, overrides);
+    }
+
+    private List<PayrollRule> toRules(int financialYear, int version, PayrollRates rates) {
+        List<PayrollRule> rules = new ArrayList<>();
+        rules.add(new PayrollRule(financialYear, version, PayrollRule.HRA_PERCENT, 0.0, rates.getHraBps() / 100.0));
+        rules.add(new PayrollRule(financialYear, version, PayrollRule.TRANSPORT_ALLOWANCE, 0.0, PayrollEngine.toRupees(rates.getTransportPaise())));
+        rules.add(new PayrollRule(financialYear, version, PayrollRule.MEDICAL_ALLOWANCE, 0.0, PayrollEngine.toRupees(rates.getMedicalPaise())));
+        rules.add(new PayrollRule(financialYear, version, PayrollRule.PF_PERCENT, 0.0, rates.getPfBps() / 100.0));
+        rules.add(new PayrollRule(financialYear, version, PayrollRule.ESI_PERCENT, 0.0, rates.getEsiBps() / 100.0));
+        rules.add(new PayrollRule(financialYear, version, PayrollRule.PROFESSIONAL_TAX, 0.0, PayrollEngine.toRupees(rates.getProfessionalTaxPaise())));
+        rules.add(new PayrollRule(financialYear, version, PayrollRule.INSURANCE_PERCENT, 0.0, rates.getInsuranceBps() / 100.0));
+        long[] floors = rates.getSlabFloors();
+        int[] slabBps = rates.getSlabBps();
+        for (int i = 0; i < floors.length; i++) {
+            rules.add(new PayrollRule(financialYear, version, PayrollRule.TAX_SLAB, PayrollEngine.toRupees(floors[i]), slabBps[i] / 100.0));
+        }
+        return rules;
+    }
+
+    private PayrollRuleSetDTO toDto(PayrollRates rates) {
+        long[] floors = rates.getSlabFloors();
+        int[] slabBps = rates.getSlabBps();
+        List<TaxSlabDTO> slabs = new ArrayList<>(floors.length);
+        for (int i = 0; i < floors.length; i++) {
+            slabs.add(new TaxSlabDTO(PayrollEngine.toRupees(floors[i]), slabBps[i] / 100.0));
+        }
+        return PayrollRuleSetDTO.builder()
+                .hraPercent(rates.getHraBps() / 100.0)
+                .transportAllowance(PayrollEngine.toRupees(rates.getTransportPaise()))
+                .medicalAllowance(PayrollEngine.toRupees(rates.getMedicalPaise()))
+                .pfPercent(rates.getPfBps() / 100.0)
+                .esiPercent(rates.getEsiBps() / 100.0)
+                .professionalTax(PayrollEngine.toRupees(rates.getProfessionalTaxPaise()))
+                .insurancePercent(rates.getInsuranceBps() / 100.0)
+                .taxSlabs(slabs)
+                .build();
+    }
+
+    private static int basisPoints(Double percent, String field) {
+        if (percent == null || percent < 0 || percent > 100) {
+            throw new IllegalArgumentException(field + " must be between 0 and 100");
+        }
+        return (int) Math.round(percent * 100);
+    }
+
+    private static long paise(Double rupees, String field) {
+        if (rupees < 0) {
+            throw new IllegalArgumentException(field + " must not be negative");
+        }
+        return PayrollEngine.toPaise(rupees);
+    }
+}
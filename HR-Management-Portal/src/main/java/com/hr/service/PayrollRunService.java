@@ -0,0 +1,228 @@
+package com.hr.service;
+
+import com.hr.dto.PayrollGenerationResult;
+import com.hr.entity.PayrollRun;
+import com.hr.repository.PayrollRunRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs month-end payroll generation as background jobs on a bounded executor.
+ *
+ * Job state lives in PAYROLL_RUN and is updated after every chunk. A run whose
+ * heartbeat goes stale (node stopped or crashed) is claimed again by the
+ * recovery sweep; generation skips employees that already have a payroll, so
+ * the resumed run continues where the interrupted one stopped.
+ */
+@Slf4j
+@Service
+public class PayrollRunService {
+
+    private static final List<String> ACTIVE_STATUSES = List.of(PayrollRun.QUEUED, PayrollRun.RUNNING);
+    private static final int MAX_FAILURE_DETAILS = 4000;
+
+    private final PayrollRunRepo payrollRunRepo;
+    private final PayrollGenerationService payrollGenerationService;
+    private final ThreadPoolExecutor executor;
+    private final long staleAfterSeconds;
+
+    // Runs queued or executing on this node, so the recovery sweep does not dispatch them twice
+    private final Set<Integer> dispatched = ConcurrentHashMap.newKeySet();
+
+    public PayrollRunService(PayrollRunRepo payrollRunRepo,
+                             PayrollGenerationService payrollGenerationService,
+                             @Value("${payroll.run.workers:2}") int workers,
+                             @Value("${payroll.run.queue-capacity:10}") int queueCapacity,
+                             @Value("${payroll.run.stale-after-seconds:120}") long staleAfterSeconds) {
+        this.payrollRunRepo = payrollRunRepo;
+        this.payrollGenerationService = payrollGenerationService;
+        this.staleAfterSeconds = staleAfterSeconds;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payroll-run-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Submit a run for the month, or return the one already queued or running for it
+    public PayrollRun submit(String month, Integer year) {
+        if (month == null || month.isBlank()) {
+            month = LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMMM"));
+        }
+        if (year == null) {
+            year = LocalDateTime.now().getYear();
+        }
+        // A cancelled run left behind by a stopped node is not the month's active run any more
+        cancelAbandonedRuns();
+        String activeKey = PayrollRun.activeKeyOf(month, year);
+        Optional<PayrollRun> active = payrollRunRepo.findByActiveKey(activeKey);
+        if (active.isPresent()) {
+            return active.get();
+        }
+
+        PayrollRun run;
+        try {
+            run = payrollRunRepo.save(new PayrollRun(month, year));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submit for the month inserted its run first (UK_PAYROLL_RUN_ACTIVE_KEY)
+            return payrollRunRepo.findByActiveKey(activeKey).orElseThrow(() -> e);
+        }
+        try {
+            dispatch(run.getId());
+        } catch (RejectedExecutionException e) {
+            run.setStatus(PayrollRun.FAILED);
+            run.setFailureDetails("Payroll run queue is full, try again later");
+            run.setFinishedAt(LocalDateTime.now());
+            payrollRunRepo.save(run);
+            throw e;
+        }
+        log.info("Queued payroll run {} for {} {}", run.getId(), month, year);
+        return run;
+    }
+
+    public Optional<PayrollRun> getRun(Integer id) {
+        return payrollRunRepo.findById(id);
+    }
+
+    public Optional<PayrollRun> cancel(Integer id) {
+        LocalDateTime now = LocalDateTime.now();
+        if (payrollRunRepo.cancelQueued(id, now) == 0) {
+            payrollRunRepo.requestCancel(id);
+        }
+        return payrollRunRepo.findById(id);
+    }
+
+    // Pick up runs left behind by a node that stopped, on startup and periodically after that
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${payroll.run.recovery-interval-ms:60000}",
+            initialDelayString = "${payroll.run.recovery-interval-ms:60000}")
+    public void resumeInterruptedRuns() {
+        cancelAbandonedRuns();
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+        for (PayrollRun run : payrollRunRepo.findByStatusIn(ACTIVE_STATUSES)) {
+            boolean stale = PayrollRun.QUEUED.equals(run.getStatus())
+                    || run.getHeartbeatAt() == null
+                    || run.getHeartbeatAt().isBefore(staleBefore);
+            if (!stale || run.isCancelRequested() || dispatched.contains(run.getId())) {
+                continue;
+            }
+            try {
+                log.info("Resuming interrupted payroll run {} for {} {}", run.getId(), run.getPayrollMonth(), run.getPayrollYear());
+                dispatch(run.getId());
+            } catch (RejectedExecutionException e) {
+                log.warn("Payroll run queue is full, run {} will be retried on the next sweep", run.getId());
+            }
+        }
+    }
+
+    private void cancelAbandonedRuns() {
+        LocalDateTime now = LocalDateTime.now();
+        int cancelled = payrollRunRepo.cancelAbandoned(now, now.minusSeconds(staleAfterSeconds));
+        if (cancelled > 0) {
+            log.info("Marked {} cancelled payroll runs of stopped executors as CANCELLED", cancelled);
+        }
+    }
+
+    private void dispatch(Integer runId) {
+        if (!dispatched.add(runId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    execute(runId);
+                } finally {
+                    dispatched.remove(runId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dispatched.remove(runId);
+            throw e;
+        }
+    }
+
+    private void execute(Integer runId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (payrollRunRepo.claim(runId, now, now.minusSeconds(staleAfterSeconds)) == 0) {
+            log.debug("Payroll run {} already claimed, finished or cancelled", runId);
+            return;
+        }
+        PayrollRun run = payrollRunRepo.findById(runId).orElseThrow();
+
+        try {
+            PayrollGenerationResult result = payrollGenerationService.generate(run.getPayrollMonth(), run.getPayrollYear(),
+                    (processed, total, partial) -> payrollRunRepo.updateProgress(runId, total, processed,
+                            partial.getGenerated(), partial.getSkippedExisting(), partial.getFailed(), LocalDateTime.now()),
+                    () -> Thread.currentThread().isInterrupted()
+                            || payrollRunRepo.findCancelRequestedById(runId).orElse(true));
+
+            run = payrollRunRepo.findById(runId).orElseThrow();
+            run.setGeneratedCount(result.getGenerated());
+            run.setSkippedExisting(result.getSkippedExisting());
+            run.setFailedCount(result.getFailed());
+            run.setFailureDetails(describeFailures(result));
+            run.setFinishedAt(LocalDateTime.now());
+
+            if (result.isCancelled() && Thread.currentThread().isInterrupted()) {
+                // Node shutting down: leave the run RUNNING so the recovery sweep resumes it
+                log.info("Payroll run {} interrupted by shutdown", runId);
+                return;
+            }
+            run.setStatus(result.isCancelled() ? PayrollRun.CANCELLED : PayrollRun.COMPLETED);
+            payrollRunRepo.save(run);
+            log.info("Payroll run {} {}: {} generated, {} failed", runId, run.getStatus(),
+                    result.getGenerated(), result.getFailed());
+        } catch (Exception e) {
+            log.error("Payroll run {} failed", runId, e);
+            run = payrollRunRepo.findById(runId).orElse(run);
+            run.setStatus(PayrollRun.FAILED);
+            run.setFailureDetails(truncate(e.getMessage()));
+            run.setFinishedAt(LocalDateTime.now());
+            payrollRunRepo.save(run);
+        }
+    }
+
+    private String describeFailures(PayrollGenerationResult result) {
+        if (result.getFailures().isEmpty()) {
+            return null;
+        }
+        return truncate(result.getFailures().stream()
+                .map(f -> f.getEmployeeId() + " (" + f.getEmployeeName() + "): " + f.getReason())
+                .collect(Collectors.joining("\n")));
+    }
+
+    private String truncate(String text) {
+        if (text == null || text.length() <= MAX_FAILURE_DETAILS) {
+            return text;
+        }
+        return text.substring(0, MAX_FAILURE_DETAILS - 3) + "...";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,19 +1,29 @@
 package com.hr.service;
 
 import com.hr.dto.PayrollDTO;
+import com.hr.dto.PayrollGenerationResult;
+import com.hr.dto.PayrollTransitionResult;
 import com.hr.entity.Employee;
 import com.hr.entity.Payroll;
 import com.hr.repository.EmployeeRepo;
 import com.hr.repository.PayrollRepo;
+import com.hr.repository.projection.PayrollPeriodKey;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -21,8 +31,14 @@ import java.util.stream.Collectors;
 @Transactional
 public class PayrollService {
 
+    private static final int MAX_CHANGED_IDS_PAGE = 5000;
+
     private final PayrollRepo payrollRepo;
     private final EmployeeRepo employeeRepo;
+    private final PayrollGenerationService payrollGenerationService;
+    private final EmployeeEnrichmentService employeeEnrichmentService;
+    private final PayslipStore payslipStore;
+    private final PayrollSummaryService payrollSummaryService;
 
     // Generate payroll for a specific employee for current month
     public Payroll generatePayroll(Integer employeeId) {
@@ -33,8 +49,8 @@ public class PayrollService {
         Integer currentYear = getCurrentYear();
 
         // Check if payroll already exists for this month
-        Optional<Payroll> existingPayroll = payrollRepo.findByEmployeeIdAndPayrollMonthAndPayrollYear(
-            employeeId, currentMonth, currentYear);
+        Optional<Payroll> existingPayroll = payrollRepo.findByEmployeeIdAndPeriod(
+            employeeId, Payroll.periodOf(currentMonth, currentYear));
 
         if (existingPayroll.isPresent()) {
             throw new RuntimeException("Payroll already exists for employee " + employee.getEmployeeName() + 
@@ -48,46 +64,39 @@ public class PayrollService {
         payroll.setPayrollMonth(currentMonth);
         payroll.setPayrollYear(currentYear);
         payroll.setStatus("DRAFT");
+        payroll.setDepartment(employee.getDepartment());
 
         // Calculate payroll automatically (done in entity)
         payroll.calculatePayroll();
 
-        return payrollRepo.save(payroll);
+        Payroll saved = payrollRepo.save(payroll);
+        payrollSummaryService.added(saved);
+        return saved;
     }
 
-    // Generate payroll for all active employees
-    public List<Payroll> generatePayrollForAllEmployees() {
-        List<Employee> activeEmployees = employeeRepo.findAll().stream()
-            .filter(Employee::isActive)
-            .collect(Collectors.toList());
-
-        List<Payroll> generatedPayrolls = new ArrayList<>();
-        String currentMonth = getCurrentMonth();
-        Integer currentYear = getCurrentYear();
+    // Generate payroll for all active employees (commits per chunk, so no surrounding transaction)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollGenerationResult generatePayrollForAllEmployees() {
+        return payrollGenerationService.generate(getCurrentMonth(), getCurrentYear());
+    }
 
-        for (Employee employee : activeEmployees) {
+    // Fill PERIOD on payrolls written before the column existed, one statement per month
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillPeriods() {
+        for (PayrollPeriodKey key : payrollRepo.findPeriodKeysToBackfill()) {
+            Integer period = Payroll.periodOf(key.getPayrollMonth(), key.getPayrollYear());
+            if (period == null) {
+                log.warn("Payroll month '{}' {} not recognised, PERIOD left empty", key.getPayrollMonth(), key.getPayrollYear());
+                continue;
+            }
             try {
-                // Check if payroll already exists
-                boolean exists = payrollRepo.existsByEmployeeIdAndPayrollMonthAndPayrollYear(
-                    employee.getId(), currentMonth, currentYear);
-
-                if (!exists) {
-                    Payroll payroll = new Payroll();
-                    payroll.setEmployeeId(employee.getId());
-                    payroll.setBasicSalary(employee.getSalary());
-                    payroll.setPayrollMonth(currentMonth);
-                    payroll.setPayrollYear(currentYear);
-                    payroll.setStatus("DRAFT");
-                    payroll.calculatePayroll();
-
-                    generatedPayrolls.add(payrollRepo.save(payroll));
-                }
-            } catch (Exception e) {
-                System.err.println("Error generating payroll for employee " + employee.getEmployeeName() + ": " + e.getMessage());
+                payrollRepo.backfillPeriod(key.getPayrollMonth(), key.getPayrollYear(), period);
+            } catch (DataAccessException e) {
+                // Duplicate payrolls for the same employee and month violate UK_PAYROLL_EMPLOYEE_PERIOD
+                log.warn("PERIOD backfill for {} {} failed: {}", key.getPayrollMonth(), key.getPayrollYear(), e.getMessage());
             }
         }
-
-        return generatedPayrolls;
     }
 
     // Get payroll by ID
@@ -95,30 +104,42 @@ public class PayrollService {
         return payrollRepo.findById(id);
     }
 
-    // Get all payrolls for an employee
-    public List<Payroll> getPayrollsByEmployeeId(Integer employeeId) {
-        return payrollRepo.findByEmployeeId(employeeId);
+    // Get payroll of an employee for one yyyyMM period
+    public Optional<Payroll> getPayrollForPeriod(Integer employeeId, Integer period) {
+        return payrollRepo.findByEmployeeIdAndPeriod(employeeId, period);
+    }
+
+    // Get an employee's payrolls for one calendar year, oldest month first
+    public List<Payroll> getPayrollsByEmployeeForYear(Integer employeeId, Integer year) {
+        return payrollRepo.findByEmployeeIdAndPeriodBetweenOrderByPeriodAsc(employeeId, year * 100 + 1, year * 100 + 12);
     }
 
     // Get payroll for specific employee, month, and year
     public Optional<Payroll> getPayroll(Integer employeeId, String month, Integer year) {
-        return payrollRepo.findByEmployeeIdAndPayrollMonthAndPayrollYear(employeeId, month, year);
+        Integer period = Payroll.periodOf(month, year);
+        return period != null
+            ? payrollRepo.findByEmployeeIdAndPeriod(employeeId, period)
+            : payrollRepo.findByEmployeeIdAndPayrollMonthAndPayrollYear(employeeId, month, year);
     }
 
     // Get all payrolls for current month
     public List<Payroll> getCurrentMonthPayrolls() {
-        return payrollRepo.findByPayrollMonthAndPayrollYear(getCurrentMonth(), getCurrentYear());
+        return getPayrollsForMonth(getCurrentMonth(), getCurrentYear());
     }
 
     // Get all payrolls for a specific month and year
     public List<Payroll> getPayrollsForMonth(String month, Integer year) {
-        return payrollRepo.findByPayrollMonthAndPayrollYear(month, year);
+        Integer period = Payroll.periodOf(month, year);
+        return period != null
+            ? payrollRepo.findByPeriod(period)
+            : payrollRepo.findByPayrollMonthAndPayrollYear(month, year);
     }
 
     // Update payroll
     public Payroll updatePayroll(Integer id, Payroll updatedPayroll) {
         Payroll existingPayroll = payrollRepo.findById(id)
             .orElseThrow(() -> new RuntimeException("Payroll not found with ID: " + id));
+        PayrollSummaryService.Contribution before = PayrollSummaryService.Contribution.of(existingPayroll);
 
         // Update editable fields
         existingPayroll.setBasicSalary(updatedPayroll.getBasicSalary());
@@ -131,7 +152,10 @@ public class PayrollService {
         // Recalculate payroll
         existingPayroll.calculatePayroll();
 
-        return payrollRepo.save(existingPayroll);
+        Payroll saved = payrollRepo.save(existingPayroll);
+        payrollSummaryService.changed(before, saved);
+        evictPayslipAfterCommit(id);
+        return saved;
     }
 
     // Approve payroll
@@ -139,8 +163,11 @@ public class PayrollService {
         Payroll payroll = payrollRepo.findById(id)
             .orElseThrow(() -> new RuntimeException("Payroll not found with ID: " + id));
 
+        PayrollSummaryService.Contribution before = PayrollSummaryService.Contribution.of(payroll);
         payroll.setStatus("APPROVED");
-        return payrollRepo.save(payroll);
+        Payroll saved = payrollRepo.save(payroll);
+        payrollSummaryService.changed(before, saved);
+        return saved;
     }
 
     // Mark payroll as paid
@@ -152,8 +179,11 @@ public class PayrollService {
             throw new RuntimeException("Payroll must be approved before marking as paid");
         }
 
+        PayrollSummaryService.Contribution before = PayrollSummaryService.Contribution.of(payroll);
         payroll.setStatus("PAID");
-        return payrollRepo.save(payroll);
+        Payroll saved = payrollRepo.save(payroll);
+        payrollSummaryService.changed(before, saved);
+        return saved;
     }
 
     // Delete payroll
@@ -166,33 +196,25 @@ public class PayrollService {
         }
 
         payrollRepo.deleteById(id);
+        payrollSummaryService.removed(payroll);
+        evictPayslipAfterCommit(id);
     }
 
-    // Get payroll statistics
+    // Get payroll statistics (current month), read from the PAYROLL_SUMMARY rollup
+    @Transactional(readOnly = true)
     public Map<String, Object> getPayrollStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-
-        // Current month stats
-        List<Payroll> currentMonthPayrolls = getCurrentMonthPayrolls();
-        stats.put("totalEmployees", currentMonthPayrolls.size());
-        stats.put("draftPayrolls", currentMonthPayrolls.stream().mapToLong(p -> "DRAFT".equals(p.getStatus()) ? 1 : 0).sum());
-        stats.put("approvedPayrolls", currentMonthPayrolls.stream().mapToLong(p -> "APPROVED".equals(p.getStatus()) ? 1 : 0).sum());
-        stats.put("paidPayrolls", currentMonthPayrolls.stream().mapToLong(p -> "PAID".equals(p.getStatus()) ? 1 : 0).sum());
-
-        // Calculate total payroll cost
-        double totalCost = currentMonthPayrolls.stream()
-            .filter(p -> !"DRAFT".equals(p.getStatus()))
-            .mapToDouble(Payroll::getNetSalary)
-            .sum();
-        stats.put("totalPayrollCost", totalCost);
-
-        // Average salary
-        OptionalDouble avgSalary = currentMonthPayrolls.stream()
-            .mapToDouble(Payroll::getNetSalary)
-            .average();
-        stats.put("averageSalary", avgSalary.orElse(0.0));
-
-        return stats;
+        return payrollSummaryService.getStatistics(getCurrentMonth(), getCurrentYear());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPayrollStatistics(String month, Integer year) {
+        return payrollSummaryService.getStatistics(month, year);
+    }
+
+    // Statistics for every month of a year (all years when null)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPayrollStatisticsHistory(Integer year) {
+        return payrollSummaryService.getHistory(year);
     }
 
     // Get payroll summary with employee details
@@ -200,10 +222,12 @@ public class PayrollService {
         List<Payroll> payrolls = getCurrentMonthPayrolls();
         List<Map<String, Object>> summaryList = new ArrayList<>();
 
+        Map<Integer, Employee> employees = employeeEnrichmentService.loadByIds(
+            payrolls.stream().map(Payroll::getEmployeeId).toList());
+
         for (Payroll payroll : payrolls) {
-            Optional<Employee> employeeOpt = employeeRepo.findById(payroll.getEmployeeId());
-            if (employeeOpt.isPresent()) {
-                Employee employee = employeeOpt.get();
+            Employee employee = employees.get(payroll.getEmployeeId());
+            if (employee != null) {
                 Map<String, Object> summary = new HashMap<>();
                 
                 summary.put("payrollId", payroll.getId());
@@ -237,28 +261,77 @@ public class PayrollService {
         return LocalDateTime.now().getYear();
     }
 
-    // Bulk operations
-    public List<Payroll> approveAllPayrolls(String month, Integer year) {
-        List<Payroll> payrolls = payrollRepo.findByPayrollMonthAndPayrollYear(month, year);
-        
-        for (Payroll payroll : payrolls) {
-            if ("DRAFT".equals(payroll.getStatus())) {
-                payroll.setStatus("APPROVED");
-            }
+    // Stored slips are keyed by updatedDate, so this only frees the old file; done after commit so a
+    // concurrent download cannot store the pre-update version again
+    private void evictPayslipAfterCommit(Integer payrollId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    payslipStore.evict(payrollId);
+                }
+            });
+        } else {
+            payslipStore.evict(payrollId);
         }
-        
-        return payrollRepo.saveAll(payrolls);
     }
 
-    public List<Payroll> markAllPayrollsAsPaid(String month, Integer year) {
-        List<Payroll> payrolls = payrollRepo.findByPayrollMonthAndPayrollYear(month, year);
-        
-        for (Payroll payroll : payrolls) {
-            if ("APPROVED".equals(payroll.getStatus())) {
-                payroll.setStatus("PAID");
-            }
+    // Bulk operations: one conditional UPDATE per call, optionally returning the first page of changed IDs
+    public PayrollTransitionResult approveAllPayrolls(String month, Integer year, boolean includeIds, int limit) {
+        return transitionAll(month, year, "DRAFT", "APPROVED", includeIds, limit);
+    }
+
+    public PayrollTransitionResult markAllPayrollsAsPaid(String month, Integer year, boolean includeIds, int limit) {
+        return transitionAll(month, year, "APPROVED", "PAID", includeIds, limit);
+    }
+
+    // Next keyset page of the IDs changed by an earlier bulk operation
+    @Transactional(readOnly = true)
+    public PayrollTransitionResult getChangedPayrollIds(String month, Integer year, String status,
+                                                        LocalDateTime changedAt, Integer afterId, int limit) {
+        PayrollTransitionResult result = PayrollTransitionResult.builder()
+            .payrollMonth(month)
+            .payrollYear(year)
+            .toStatus(status)
+            .changedAt(changedAt)
+            .build();
+        fillChangedIds(result, afterId, limit);
+        result.setUpdated(result.getChangedIds().size());
+        return result;
+    }
+
+    private PayrollTransitionResult transitionAll(String month, Integer year, String fromStatus, String toStatus,
+                                                  boolean includeIds, int limit) {
+        // Microsecond precision matches the stored timestamp, so changedAt finds exactly these rows later
+        LocalDateTime changedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int updated = payrollRepo.updateStatusForMonth(Payroll.periodOf(month, year), month, year, fromStatus, toStatus,
+            changedAt);
+        if (updated > 0) {
+            payrollSummaryService.statusMoved(month, year, fromStatus, toStatus, changedAt);
         }
-        
-        return payrollRepo.saveAll(payrolls);
+        log.info("Moved {} payrolls for {} {} from {} to {}", updated, month, year, fromStatus, toStatus);
+
+        PayrollTransitionResult result = PayrollTransitionResult.builder()
+            .payrollMonth(month)
+            .payrollYear(year)
+            .fromStatus(fromStatus)
+            .toStatus(toStatus)
+            .updated(updated)
+            .changedAt(changedAt)
+            .build();
+        if (includeIds && updated > 0) {
+            fillChangedIds(result, 0, limit);
+        }
+        return result;
+    }
+
+    private void fillChangedIds(PayrollTransitionResult result, Integer afterId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CHANGED_IDS_PAGE);
+        List<Integer> ids = payrollRepo.findChangedIds(
+            Payroll.periodOf(result.getPayrollMonth(), result.getPayrollYear()), result.getPayrollMonth(),
+            result.getPayrollYear(), result.getToStatus(), result.getChangedAt(), afterId != null ? afterId : 0,
+            PageRequest.of(0, pageSize));
+        result.setChangedIds(ids);
+        result.setNextAfterId(ids.size() == pageSize ? ids.get(ids.size() - 1) : null);
     }
 }
@@ -1,15 +1,20 @@
 package com.hr.service;
 
+import com.hr.dto.PayrollPage;
 import com.hr.dto.PayrollResponse;
 import com.hr.entity.Employee;
 import com.hr.entity.Payroll;
 import com.hr.repository.EmployeeRepo;
 import com.hr.repository.PayrollRepo;
+import com.hr.repository.projection.PayrollListRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,14 +24,18 @@ import java.util.Optional;
 @Transactional
 public class PayrollServiceImpl {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    // Cursor period for the rows without a period, which follow all dated rows
+    private static final int NO_PERIOD = 0;
+
     private final PayrollRepo payrollRepo;
     private final EmployeeRepo employeeRepo;
+    private final PayrollSummaryService payrollSummaryService;
 
-    public List<PayrollResponse> getAllPayrolls() {
-        List<Payroll> payrolls = payrollRepo.findAll();
-        return payrolls.stream()
-                .map(this::convertToResponse)
-                .toList();
+    @Transactional(readOnly = true)
+    public PayrollPage getAllPayrolls(Integer beforePeriod, Integer beforeId, int limit) {
+        return page(beforePeriod, beforeId, limit, payrollRepo::findPayrollRowsBefore,
+                payrollRepo::findPayrollRowsWithoutPeriod);
     }
 
     public Optional<PayrollResponse> getPayrollById(Integer id) {
@@ -39,7 +48,9 @@ public class PayrollServiceImpl {
                 .orElseThrow(() -> new RuntimeException("Employee not found with ID: " + employeeId));
 
         Payroll payroll = new Payroll(employeeId, employee.getSalary(), month, year);
+        payroll.setDepartment(employee.getDepartment());
         Payroll saved = payrollRepo.save(payroll);
+        payrollSummaryService.added(saved);
         
         log.info("Created payroll for employee {} for {}/{}", employeeId, month, year);
         return convertToResponse(saved);
@@ -48,18 +59,55 @@ public class PayrollServiceImpl {
     public Optional<PayrollResponse> updatePayrollStatus(Integer id, String status) {
         return payrollRepo.findById(id)
                 .map(payroll -> {
+                    PayrollSummaryService.Contribution before = PayrollSummaryService.Contribution.of(payroll);
                     payroll.setStatus(status);
                     Payroll updated = payrollRepo.save(payroll);
+                    payrollSummaryService.changed(before, updated);
                     log.info("Updated payroll {} status to {}", id, status);
                     return convertToResponse(updated);
                 });
     }
 
-    public List<PayrollResponse> getPayrollsByEmployee(Integer employeeId) {
-        List<Payroll> payrolls = payrollRepo.findByEmployeeId(employeeId);
-        return payrolls.stream()
-                .map(this::convertToResponse)
-                .toList();
+    @Transactional(readOnly = true)
+    public PayrollPage getPayrollsByEmployee(Integer employeeId, Integer beforePeriod, Integer beforeId, int limit) {
+        return page(beforePeriod, beforeId, limit,
+                (period, id, pageable) -> payrollRepo.findPayrollRowsByEmployeeIdBefore(employeeId, period, id, pageable),
+                (id, pageable) -> payrollRepo.findPayrollRowsByEmployeeIdWithoutPeriod(employeeId, id, pageable));
+    }
+
+    // Reads one row past the page to know whether another page follows; no count query
+    private PayrollPage page(Integer beforePeriod, Integer beforeId, int limit,
+                             RowsBefore rowsBefore, RowsWithoutPeriod rowsWithoutPeriod) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        int period = beforePeriod != null ? beforePeriod : Integer.MAX_VALUE;
+        int id = beforeId != null ? beforeId : Integer.MAX_VALUE;
+
+        List<PayrollListRow> rows = new ArrayList<>(pageSize + 1);
+        if (period != NO_PERIOD) {
+            rows.addAll(rowsBefore.find(period, id, PageRequest.of(0, pageSize + 1)));
+            id = Integer.MAX_VALUE;
+        }
+        if (rows.size() <= pageSize) {
+            rows.addAll(rowsWithoutPeriod.find(id, PageRequest.of(0, pageSize + 1 - rows.size())));
+        }
+
+        PayrollPage page = PayrollPage.builder().limit(pageSize).build();
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            PayrollListRow last = rows.get(pageSize - 1);
+            page.setNextPeriod(last.getPeriod() != null ? last.getPeriod() : NO_PERIOD);
+            page.setNextId(last.getId());
+        }
+        page.setPayrolls(rows.stream().map(this::convertToResponse).toList());
+        return page;
+    }
+
+    private interface RowsBefore {
+        List<PayrollListRow> find(Integer period, Integer id, Pageable pageable);
+    }
+
+    private interface RowsWithoutPeriod {
+        List<PayrollListRow> find(Integer id, Pageable pageable);
     }
 
     private PayrollResponse convertToResponse(Payroll payroll) {
@@ -97,6 +145,34 @@ public class PayrollServiceImpl {
         return response;
     }
 
+    // Listing rows already carry the employee name and department from the join
+    private PayrollResponse convertToResponse(PayrollListRow row) {
+        PayrollResponse response = PayrollResponse.builder()
+                .id(row.getId())
+                .employeeId(row.getEmployeeId())
+                .employeeName(row.getEmployeeName())
+                .department(row.getDepartment())
+                .basicSalary(row.getBasicSalary())
+                .hra(row.getHra())
+                .transportAllowance(row.getTransportAllowance())
+                .medicalAllowance(row.getMedicalAllowance())
+                .pfDeduction(row.getPfDeduction())
+                .esiDeduction(row.getEsiDeduction())
+                .grossSalary(row.getGrossSalary())
+                .totalDeductions(row.getTotalDeductions())
+                .netSalary(row.getNetSalary())
+                .payrollMonth(row.getPayrollMonth())
+                .payrollYear(row.getPayrollYear())
+                .workingDays(row.getWorkingDays())
+                .presentDays(row.getPresentDays())
+                .status(row.getStatus())
+                .createdDate(row.getCreatedDate())
+                .build();
+
+        calculateComputedFields(response);
+        return response;
+    }
+
     private void calculateComputedFields(PayrollResponse response) {
         // Calculate attendance percentage
         if (response.getWorkingDays() != null && response.getWorkingDays() > 0) {
@@ -0,0 +1,240 @@
+package com.hr.service;
+
+import com.hr.dto.PayrollSimulationRequest;
+import com.hr.dto.PayrollSimulationResult;
+import com.hr.payroll.PayrollBatch;
+import com.hr.payroll.PayrollEngine;
+import com.hr.payroll.PayrollRuleBook;
+import com.hr.repository.EmployeeRepo;
+import com.hr.repository.projection.EmployeeSalaryRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Read-only what-if payroll for the whole organisation.
+ *
+ * Active employees are loaded once into two columnar batches, one calculated
+ * with the rules in effect for the financial year and one with the simulated
+ * rates. A fork/join task
+ * splits the rows into ranges, calculates both batches and sums each range per
+ * department; the partial sums are merged on the way back up. Nothing is written.
+ */
+@Slf4j
+@Service
+public class PayrollSimulationService {
+
+    private static final String UNASSIGNED = "Unassigned";
+    private static final int SPLIT_THRESHOLD = 2048;
+    private static final int MAX_EMPLOYEE_DELTAS = 1000;
+    // Full attendance, as for generated payrolls
+    private static final int WORKING_DAYS = 22;
+
+    // Per-department sums: current and simulated gross, deductions, income tax, net, then head count
+    private static final int SUMS = 9;
+    private static final int SIMULATED = 4;
+    private static final int HEAD_COUNT = 8;
+
+    private final EmployeeRepo employeeRepo;
+    private final PayrollRuleService payrollRuleService;
+    private final ForkJoinPool pool;
+
+    public PayrollSimulationService(EmployeeRepo employeeRepo,
+                                    PayrollRuleService payrollRuleService,
+                                    @Value("${payroll.simulation.parallelism:0}") int parallelism) {
+        this.employeeRepo = employeeRepo;
+        this.payrollRuleService = payrollRuleService;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("payroll-simulation-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public PayrollSimulationResult simulate(PayrollSimulationRequest request) {
+        long start = System.currentTimeMillis();
+        int financialYear = request.getFinancialYear() != null
+                ? request.getFinancialYear() : PayrollRuleBook.currentFinancialYear();
+        PayrollEngine current = PayrollRuleBook.current().engineForFinancialYear(financialYear);
+        PayrollEngine simulated = new PayrollEngine(payrollRuleService.applyOverrides(current.getRates(), request));
+
+        List<EmployeeSalaryRow> employees = employeeRepo.findActiveSalaryRows().stream()
+                .filter(e -> e.getSalary() != null)
+                .filter(e -> request.getDepartment() == null || request.getDepartment().equalsIgnoreCase(e.getDepartment()))
+                .toList();
+
+        int size = employees.size();
+        Map<String, Integer> departmentIndex = new LinkedHashMap<>();
+        int[] departmentOf = new int[size];
+        PayrollBatch currentBatch = new PayrollBatch(Math.max(1, size));
+        PayrollBatch simulatedBatch = new PayrollBatch(Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            EmployeeSalaryRow employee = employees.get(i);
+            String department = employee.getDepartment() != null ? employee.getDepartment() : UNASSIGNED;
+            departmentOf[i] = departmentIndex.computeIfAbsent(department, d -> departmentIndex.size());
+            long basic = PayrollEngine.toPaise(employee.getSalary());
+            currentBatch.add(basic, 0, 0, WORKING_DAYS, WORKING_DAYS);
+            simulatedBatch.add(basic, 0, 0, WORKING_DAYS, WORKING_DAYS);
+        }
+
+        long[] sums = pool.invoke(new SimulationTask(current, simulated, currentBatch, simulatedBatch,
+                departmentOf, departmentIndex.size(), 0, size));
+
+        PayrollSimulationResult result = PayrollSimulationResult.builder()
+                .employees(size)
+                .build();
+        long[] org = new long[SUMS];
+        for (Map.Entry<String, Integer> entry : departmentIndex.entrySet()) {
+            int offset = entry.getValue() * SUMS;
+            for (int column = 0; column < SUMS; column++) {
+                org[column] += sums[offset + column];
+            }
+            result.getDepartments().add(new PayrollSimulationResult.DepartmentDelta(entry.getKey(),
+                    (int) sums[offset + HEAD_COUNT], amounts(sums, offset), amounts(sums, offset + SIMULATED),
+                    delta(sums, offset)));
+        }
+        result.getDepartments().sort(Comparator.comparing(PayrollSimulationResult.DepartmentDelta::getDepartment));
+        result.setCurrent(amounts(org, 0));
+        result.setSimulated(amounts(org, SIMULATED));
+        result.setDelta(delta(org, 0));
+
+        int limit = Math.min(MAX_EMPLOYEE_DELTAS, Math.max(0, request.getMaxEmployees() != null ? request.getMaxEmployees() : 0));
+        result.setAffectedEmployees(collectEmployeeDeltas(employees, currentBatch, simulatedBatch, limit, result));
+        result.setDurationMillis(System.currentTimeMillis() - start);
+        log.info("Payroll simulation over {} employees took {} ms", size, result.getDurationMillis());
+        return result;
+    }
+
+    // Top employees by absolute net change, kept in a bounded min-heap; returns how many changed at all
+    private int collectEmployeeDeltas(List<EmployeeSalaryRow> employees, PayrollBatch currentBatch,
+                                      PayrollBatch simulatedBatch, int limit, PayrollSimulationResult result) {
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, limit), Comparator.comparingLong(
+                (Integer row) -> Math.abs(simulatedBatch.getNetSalary(row) - currentBatch.getNetSalary(row))));
+        int affected = 0;
+        for (int row = 0; row < employees.size(); row++) {
+            long change = Math.abs(simulatedBatch.getNetSalary(row) - currentBatch.getNetSalary(row));
+            if (change == 0) {
+                continue;
+            }
+            affected++;
+            if (limit == 0) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(row);
+            } else if (change > Math.abs(simulatedBatch.getNetSalary(top.peek()) - currentBatch.getNetSalary(top.peek()))) {
+                top.poll();
+                top.add(row);
+            }
+        }
+
+        List<PayrollSimulationResult.EmployeeDelta> deltas = new ArrayList<>(top.size());
+        for (Integer row : top) {
+            EmployeeSalaryRow employee = employees.get(row);
+            long currentNet = currentBatch.getNetSalary(row);
+            long simulatedNet = simulatedBatch.getNetSalary(row);
+            deltas.add(new PayrollSimulationResult.EmployeeDelta(employee.getId(), employee.getEmployeeName(),
+                    employee.getDepartment(), PayrollEngine.toRupees(currentNet), PayrollEngine.toRupees(simulatedNet),
+                    PayrollEngine.toRupees(simulatedNet - currentNet),
+                    PayrollEngine.toRupees(simulatedBatch.getIncomeTax(row) - currentBatch.getIncomeTax(row))));
+        }
+        deltas.sort(Comparator.comparingDouble((PayrollSimulationResult.EmployeeDelta d) -> Math.abs(d.getNetDelta())).reversed());
+        result.setEmployeeDeltas(deltas);
+        return affected;
+    }
+
+    private static PayrollSimulationResult.Amounts amounts(long[] sums, int offset) {
+        return new PayrollSimulationResult.Amounts(PayrollEngine.toRupees(sums[offset]),
+                PayrollEngine.toRupees(sums[offset + 1]), PayrollEngine.toRupees(sums[offset + 2]),
+                PayrollEngine.toRupees(sums[offset + 3]));
+    }
+
+    private static PayrollSimulationResult.Amounts delta(long[] sums, int offset) {
+        return new PayrollSimulationResult.Amounts(
+                PayrollEngine.toRupees(sums[offset + SIMULATED] - sums[offset]),
+                PayrollEngine.toRupees(sums[offset + SIMULATED + 1] - sums[offset + 1]),
+                PayrollEngine.toRupees(sums[offset + SIMULATED + 2] - sums[offset + 2]),
+                PayrollEngine.toRupees(sums[offset + SIMULATED + 3] - sums[offset + 3]));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Calculates rows [from, to) of both batches and returns their per-department sums
+    private static final class SimulationTask extends RecursiveTask<long[]> {
+
+        private final PayrollEngine current;
+        private final PayrollEngine simulated;
+        private final PayrollBatch currentBatch;
+        private final PayrollBatch simulatedBatch;
+        private final int[] departmentOf;
+        private final int departments;
+        private final int from;
+        private final int to;
+
+        SimulationTask(PayrollEngine current, PayrollEngine simulated, PayrollBatch currentBatch,
+                       PayrollBatch simulatedBatch, int[] departmentOf, int departments, int from, int to) {
+            this.current = current;
+            this.simulated = simulated;
+            this.currentBatch = currentBatch;
+            this.simulatedBatch = simulatedBatch;
+            this.departmentOf = departmentOf;
+            this.departments = departments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                return computeRange();
+            }
+            int middle = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(current, simulated, currentBatch, simulatedBatch,
+                    departmentOf, departments, from, middle);
+            SimulationTask right = new SimulationTask(current, simulated, currentBatch, simulatedBatch,
+                    departmentOf, departments, middle, to);
+            left.fork();
+            long[] sums = right.compute();
+            long[] leftSums = left.join();
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += leftSums[i];
+            }
+            return sums;
+        }
+
+        private long[] computeRange() {
+            current.calculate(currentBatch, from, to);
+            simulated.calculate(simulatedBatch, from, to);
+            long[] sums = new long[departments * SUMS];
+            for (int row = from; row < to; row++) {
+                int offset = departmentOf[row] * SUMS;
+                sums[offset] += currentBatch.getGrossSalary(row);
+                sums[offset + 1] += currentBatch.getTotalDeductions(row);
+                sums[offset + 2] += currentBatch.getIncomeTax(row);
+                sums[offset + 3] += currentBatch.getNetSalary(row);
+                sums[offset + SIMULATED] += simulatedBatch.getGrossSalary(row);
+                sums[offset + SIMULATED + 1] += simulatedBatch.getTotalDeductions(row);
+                sums[offset + SIMULATED + 2] += simulatedBatch.getIncomeTax(row);
+                sums[offset + SIMULATED + 3] += simulatedBatch.getNetSalary(row);
+                sums[offset + HEAD_COUNT]++;
+            }
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.hr.service;
+
+import com.hr.entity.Payroll;
+import com.hr.entity.PayrollSummary;
+import com.hr.repository.PayrollRepo;
+import com.hr.repository.PayrollSummaryRepo;
+import com.hr.repository.projection.PayrollTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.*;
+
+/**
+ * Keeps PAYROLL_SUMMARY in step with PAYROLL and answers payroll statistics
+ * from it.
+ *
+ * Every payroll write reports its contribution (before and/or after) in the
+ * same transaction, so the rollup commits or rolls back together with the
+ * payroll row. Buckets are keyed by the yyyyMM period; payrolls whose month
+ * was not recognised have none and are left out. Each bucket is adjusted by one INSERT ... ON DUPLICATE KEY
+ * UPDATE, so concurrent writes add up even while the bucket does not exist
+ * yet. Contributions are passed on to PayrollYtdService for the per-employee
+ * year-to-date totals.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PayrollSummaryService {
+
+    private static final String UNASSIGNED = "Unassigned";
+
+    private static final String UPSERT_SQL = "INSERT INTO payroll_summary (period, status, department, payroll_count, "
+            + "total_gross, total_net) VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "payroll_count = payroll_count + ?, total_gross = total_gross + ?, total_net = total_net + ?";
+
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM payroll_summary WHERE period = ? AND status = ? "
+            + "AND department = ? AND payroll_count <= 0";
+
+    private final PayrollSummaryRepo payrollSummaryRepo;
+    private final PayrollRepo payrollRepo;
+    private final PayrollYtdService payrollYtdService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * What one payroll row adds to its summary bucket and to its employee's year-to-date totals.
+     */
+    public record Contribution(Integer employeeId, Integer period, String status, String department,
+                               double gross, double net, double incomeTax, double pf, double esi,
+                               double professionalTax, double deductions) {
+
+        public static Contribution of(Payroll payroll) {
+            return new Contribution(payroll.getEmployeeId(), payroll.getPeriod(),
+                    payroll.getStatus() != null ? payroll.getStatus() : "DRAFT",
+                    payroll.getDepartment() != null ? payroll.getDepartment() : UNASSIGNED,
+                    amount(payroll.getGrossSalary()), amount(payroll.getNetSalary()), amount(payroll.getIncomeTax()),
+                    amount(payroll.getPfDeduction()), amount(payroll.getEsiDeduction()),
+                    amount(payroll.getProfessionalTax()), amount(payroll.getTotalDeductions()));
+        }
+
+        private static double amount(Double value) {
+            return value != null ? value : 0.0;
+        }
+
+        private Bucket bucket() {
+            return new Bucket(period, status, department);
+        }
+    }
+
+    private record Bucket(Integer period, String status, String department) {
+
+        private static final Comparator<Bucket> ORDER = Comparator.comparing(Bucket::period)
+                .thenComparing(Bucket::status).thenComparing(Bucket::department);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void added(Payroll payroll) {
+        Contribution c = Contribution.of(payroll);
+        apply(c.bucket(), 1, c.gross(), c.net());
+        payrollYtdService.added(c);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(Payroll payroll) {
+        Contribution c = Contribution.of(payroll);
+        apply(c.bucket(), -1, -c.gross(), -c.net());
+        payrollYtdService.removed(c);
+    }
+
+    // before must be captured with Contribution.of before the payroll is modified
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Contribution before, Payroll payroll) {
+        Contribution after = Contribution.of(payroll);
+        if (before.equals(after)) {
+            return;
+        }
+        payrollYtdService.changed(before, after);
+        if (before.bucket().equals(after.bucket())) {
+            if (before.gross() != after.gross() || before.net() != after.net()) {
+                apply(after.bucket(), 0, after.gross() - before.gross(), after.net() - before.net());
+            }
+            return;
+        }
+        apply(before.bucket(), -1, -before.gross(), -before.net());
+        apply(after.bucket(), 1, after.gross(), after.net());
+    }
+
+    // Payrolls inserted in bulk (JDBC batches): one adjustment per bucket
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addedAll(Collection<Payroll> payrolls) {
+        Map<Bucket, double[]> buckets = new HashMap<>();
+        List<Contribution> contributions = new ArrayList<>(payrolls.size());
+        for (Payroll payroll : payrolls) {
+            Contribution c = Contribution.of(payroll);
+            contributions.add(c);
+            if (c.period() == null) {
+                continue;
+            }
+            double[] totals = buckets.computeIfAbsent(c.bucket(), key -> new double[3]);
+            totals[0]++;
+            totals[1] += c.gross();
+            totals[2] += c.net();
+        }
+        // Buckets in key order, so concurrent chunks lock them in the same order
+        List<Object[]> upserts = new ArrayList<>(buckets.size());
+        buckets.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Bucket.ORDER))
+                .forEach(e -> upserts.add(upsertArgs(e.getKey(), (long) e.getValue()[0], e.getValue()[1],
+                        e.getValue()[2])));
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+        }
+        payrollYtdService.addedAll(contributions);
+    }
+
+    // A bulk status change moves whole buckets: every (period, from, *) row becomes (period, to, *)
+    // changedAt identifies the moved payrolls for the year-to-date totals, which count approved ones only
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusMoved(String month, Integer year, String fromStatus, String toStatus, LocalDateTime changedAt) {
+        if (Objects.equals(fromStatus, toStatus)) {
+            return;
+        }
+        Integer period = Payroll.periodOf(month, year);
+        if (period != null) {
+            for (PayrollSummary row : payrollSummaryRepo.findByStatusForUpdate(period, fromStatus)) {
+                apply(new Bucket(period, toStatus, row.getDepartment()), row.getPayrollCount(), row.getTotalGross(),
+                        row.getTotalNet());
+                payrollSummaryRepo.delete(row);
+            }
+        }
+        payrollYtdService.statusMoved(period, month, year, fromStatus, toStatus, changedAt);
+    }
+
+    private void apply(Bucket bucket, long count, double gross, double net) {
+        if (bucket.period() == null) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_SQL, upsertArgs(bucket, count, gross, net));
+        if (count < 0) {
+            jdbcTemplate.update(DELETE_EMPTY_SQL, bucket.period(), bucket.status(), bucket.department());
+        }
+    }
+
+    private static Object[] upsertArgs(Bucket bucket, long count, double gross, double net) {
+        return new Object[]{bucket.period(), bucket.status(), bucket.department(), count, gross, net, count, gross, net};
+    }
+
+    // Recompute the whole table from PAYROLL; used on first start after the table was introduced
+    public int rebuild() {
+        int backfilled = payrollRepo.backfillDepartments();
+        payrollSummaryRepo.deleteAllInBatch();
+
+        Map<Bucket, PayrollSummary> rows = new LinkedHashMap<>();
+        for (PayrollTotals totals : payrollRepo.summarizeAll()) {
+            String status = totals.getStatus() != null ? totals.getStatus() : "DRAFT";
+            String department = totals.getDepartment() != null ? totals.getDepartment() : UNASSIGNED;
+            PayrollSummary row = rows.computeIfAbsent(new Bucket(totals.getPeriod(), status, department),
+                    key -> new PayrollSummary(key.period(), status, department));
+            row.add(totals.getPayrollCount(),
+                    totals.getTotalGross() != null ? totals.getTotalGross() : 0.0,
+                    totals.getTotalNet() != null ? totals.getTotalNet() : 0.0);
+        }
+        payrollSummaryRepo.saveAll(rows.values());
+        log.info("Rebuilt payroll summary: {} buckets ({} payrolls given a department)", rows.size(), backfilled);
+        return rows.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildIfMissing() {
+        try {
+            if (payrollSummaryRepo.count() == 0 && payrollRepo.count() > 0) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> rebuild());
+            }
+        } catch (DataAccessException e) {
+            // Another node rebuilt it at the same time
+            log.warn("Payroll summary rebuild skipped: {}", e.getMessage());
+        }
+    }
+
+    // Statistics for one month, same keys as the original endpoint plus a per-department breakdown
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStatistics(String month, Integer year) {
+        Integer period = Payroll.periodOf(month, year);
+        return toStatistics(month, year, period != null ? payrollSummaryRepo.findByPeriod(period) : List.of());
+    }
+
+    // One statistics entry per month that has payrolls, oldest first
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getHistory(Integer year) {
+        List<PayrollSummary> rows = year != null
+                ? payrollSummaryRepo.findByPeriodBetween(year * 100 + 1, year * 100 + 12)
+                : payrollSummaryRepo.findAll();
+
+        Map<Integer, List<PayrollSummary>> byPeriod = new TreeMap<>();
+        for (PayrollSummary row : rows) {
+            byPeriod.computeIfAbsent(row.getPeriod(), key -> new ArrayList<>()).add(row);
+        }
+
+        List<Map<String, Object>> history = new ArrayList<>(byPeriod.size());
+        byPeriod.forEach((period, monthRows) -> history.add(toStatistics(
+                Month.of(period % 100).getDisplayName(TextStyle.FULL, Locale.getDefault()), period / 100, monthRows)));
+        return history;
+    }
+
+    private Map<String, Object> toStatistics(String month, Integer year, List<PayrollSummary> rows) {
+        long total = 0;
+        long draft = 0;
+        long approved = 0;
+        long paid = 0;
+        double totalCost = 0.0;
+        double totalNet = 0.0;
+        Map<String, Map<String, Object>> departments = new TreeMap<>();
+
+        for (PayrollSummary row : rows) {
+            long count = row.getPayrollCount();
+            total += count;
+            totalNet += row.getTotalNet();
+            switch (row.getStatus()) {
+                case "DRAFT" -> draft += count;
+                case "APPROVED" -> approved += count;
+                case "PAID" -> paid += count;
+                default -> { }
+            }
+            if (!"DRAFT".equals(row.getStatus())) {
+                totalCost += row.getTotalNet();
+            }
+
+            Map<String, Object> department = departments.computeIfAbsent(row.getDepartment(), key -> {
+                Map<String, Object> empty = new HashMap<>();
+                empty.put("payrolls", 0L);
+                empty.put("totalNet", 0.0);
+                return empty;
+            });
+            department.put("payrolls", (Long) department.get("payrolls") + count);
+            department.put("totalNet", (Double) department.get("totalNet") + row.getTotalNet());
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("payrollMonth", month);
+        stats.put("payrollYear", year);
+        stats.put("totalEmployees", total);
+        stats.put("draftPayrolls", draft);
+        stats.put("approvedPayrolls", approved);
+        stats.put("paidPayrolls", paid);
+        stats.put("totalPayrollCost", totalCost);
+        stats.put("averageSalary", total > 0 ? totalNet / total : 0.0);
+        stats.put("departments", departments);
+        return stats;
+    }
+}
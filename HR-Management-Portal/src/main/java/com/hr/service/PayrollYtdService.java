@@ -0,0 +1,250 @@
+package com.hr.service;
+
+import com.hr.entity.Payroll;
+import com.hr.entity.PayrollYtd;
+import com.hr.payroll.PayrollEngine;
+import com.hr.payroll.PayrollRuleBook;
+import com.hr.repository.PayrollRepo;
+import com.hr.repository.PayrollYtdRepo;
+import com.hr.repository.projection.PayrollYtdTotals;
+import com.hr.service.PayrollSummaryService.Contribution;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Keeps PAYROLL_YTD, one row per employee and financial year, in step with
+ * PAYROLL so year-to-date figures are a single row read.
+ *
+ * Contributions arrive through PayrollSummaryService inside the payroll
+ * write's transaction; only APPROVED and PAID payrolls count, so a payroll
+ * enters the totals when it is approved. Amounts are kept in paise. Rows are
+ * adjusted with INSERT ... ON DUPLICATE KEY UPDATE, so concurrent writes for
+ * the same employee add up, also while the employee's row for the year does
+ * not exist yet; bulk changes send them as one JDBC batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PayrollYtdService {
+
+    // Payrolls that can no longer be edited or deleted; drafts do not count towards year-to-date figures
+    private static final Set<String> COUNTED_STATUSES = Set.of("APPROVED", "PAID");
+
+    private static final String UPSERT_SQL = "INSERT INTO payroll_ytd (payroll_count, gross_salary_paise, "
+            + "income_tax_paise, pf_deduction_paise, esi_deduction_paise, professional_tax_paise, "
+            + "total_deductions_paise, net_salary_paise, updated_date, employee_id, financial_year) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE payroll_count = payroll_count + ?, "
+            + "gross_salary_paise = gross_salary_paise + ?, income_tax_paise = income_tax_paise + ?, "
+            + "pf_deduction_paise = pf_deduction_paise + ?, esi_deduction_paise = esi_deduction_paise + ?, "
+            + "professional_tax_paise = professional_tax_paise + ?, "
+            + "total_deductions_paise = total_deductions_paise + ?, net_salary_paise = net_salary_paise + ?, "
+            + "updated_date = ?";
+
+    private final PayrollYtdRepo payrollYtdRepo;
+    private final PayrollRepo payrollRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void added(Contribution c) {
+        if (counted(c.status())) {
+            apply(c, 1);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(Contribution c) {
+        if (counted(c.status())) {
+            apply(c, -1);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Contribution before, Contribution after) {
+        boolean wasCounted = counted(before.status());
+        boolean isCounted = counted(after.status());
+        Integer beforeYear = financialYearOf(before);
+        Integer afterYear = financialYearOf(after);
+        if (wasCounted && isCounted && Objects.equals(before.employeeId(), after.employeeId())
+                && Objects.equals(beforeYear, afterYear)) {
+            if (afterYear != null) {
+                long[] from = amounts(before);
+                long[] to = amounts(after);
+                payrollYtdRepo.increment(after.employeeId(), afterYear, 0, to[1] - from[1], to[2] - from[2],
+                        to[3] - from[3], to[4] - from[4], to[5] - from[5], to[6] - from[6], to[7] - from[7],
+                        LocalDateTime.now());
+            }
+            return;
+        }
+        if (wasCounted) {
+            apply(before, -1);
+        }
+        if (isCounted) {
+            apply(after, 1);
+        }
+    }
+
+    // New payrolls from one generation chunk: one batch of upserts for those that count (generation writes drafts)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addedAll(Collection<Contribution> contributions) {
+        Map<Integer, Map<Integer, long[]>> byYear = new TreeMap<>();
+        for (Contribution c : contributions) {
+            Integer financialYear = financialYearOf(c);
+            if (financialYear != null && c.employeeId() != null && counted(c.status())) {
+                accumulate(byYear, financialYear, c.employeeId(), amounts(c));
+            }
+        }
+        upsertAll(byYear, 1);
+    }
+
+    // A bulk status change (see PayrollRepo.updateStatusForMonth) that moves the month's payrolls into or out of
+    // the counted statuses; payrolls without a period have no financial year and never count
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusMoved(Integer period, String month, Integer year, String fromStatus, String toStatus,
+                            LocalDateTime changedAt) {
+        int sign = (counted(toStatus) ? 1 : 0) - (counted(fromStatus) ? 1 : 0);
+        if (sign == 0 || period == null) {
+            return;
+        }
+        Map<Integer, Map<Integer, long[]>> byYear = new TreeMap<>();
+        int financialYear = PayrollRuleBook.financialYearOf(period);
+        for (PayrollYtdTotals totals : payrollRepo.summarizeChangedByEmployee(period, month, year, toStatus, changedAt)) {
+            if (totals.getEmployeeId() != null) {
+                accumulate(byYear, financialYear, totals.getEmployeeId(), amounts(totals));
+            }
+        }
+        upsertAll(byYear, sign);
+    }
+
+    @Transactional(readOnly = true)
+    public PayrollYtd getYtd(Integer employeeId, Integer financialYear) {
+        int year = financialYear != null ? financialYear : PayrollRuleBook.currentFinancialYear();
+        return payrollYtdRepo.findByEmployeeIdAndFinancialYear(employeeId, year)
+                .orElseGet(() -> new PayrollYtd(employeeId, year));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PayrollYtd> getYtdHistory(Integer employeeId) {
+        return payrollYtdRepo.findByEmployeeIdOrderByFinancialYearDesc(employeeId);
+    }
+
+    private void apply(Contribution c, int sign) {
+        Integer financialYear = financialYearOf(c);
+        if (financialYear == null || c.employeeId() == null) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_SQL, upsertArgs(c.employeeId(), financialYear, amounts(c), sign,
+                Timestamp.valueOf(LocalDateTime.now())));
+        if (sign < 0) {
+            payrollYtdRepo.deleteIfEmpty(c.employeeId(), financialYear);
+        }
+    }
+
+    // One batch in (year, employee) order, so that concurrent writers lock rows in the same order
+    private void upsertAll(Map<Integer, Map<Integer, long[]>> byYear, int sign) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> upserts = new ArrayList<>();
+        byYear.forEach((financialYear, employees) -> employees.forEach((employeeId, amounts) ->
+                upserts.add(upsertArgs(employeeId, financialYear, amounts, sign, now))));
+        if (upserts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+        if (sign < 0) {
+            byYear.forEach((financialYear, employees) ->
+                    employees.keySet().forEach(employeeId -> payrollYtdRepo.deleteIfEmpty(employeeId, financialYear)));
+        }
+    }
+
+    private static void accumulate(Map<Integer, Map<Integer, long[]>> byYear, int financialYear, Integer employeeId,
+                                   long[] amounts) {
+        long[] totals = byYear.computeIfAbsent(financialYear, year -> new TreeMap<>())
+                .computeIfAbsent(employeeId, id -> new long[amounts.length]);
+        for (int i = 0; i < amounts.length; i++) {
+            totals[i] += amounts[i];
+        }
+    }
+
+    // {count, gross, tax, pf, esi, professional tax, deductions, net}, amounts in paise
+    private static long[] amounts(Contribution c) {
+        return new long[]{1, PayrollEngine.toPaise(c.gross()), PayrollEngine.toPaise(c.incomeTax()),
+                PayrollEngine.toPaise(c.pf()), PayrollEngine.toPaise(c.esi()), PayrollEngine.toPaise(c.professionalTax()),
+                PayrollEngine.toPaise(c.deductions()), PayrollEngine.toPaise(c.net())};
+    }
+
+    private static long[] amounts(PayrollYtdTotals totals) {
+        return new long[]{totals.getPayrollCount(), PayrollEngine.toPaise(totals.getGrossSalary()),
+                PayrollEngine.toPaise(totals.getIncomeTax()), PayrollEngine.toPaise(totals.getPfDeduction()),
+                PayrollEngine.toPaise(totals.getEsiDeduction()), PayrollEngine.toPaise(totals.getProfessionalTax()),
+                PayrollEngine.toPaise(totals.getTotalDeductions()), PayrollEngine.toPaise(totals.getNetSalary())};
+    }
+
+    private static Object[] upsertArgs(Integer employeeId, int financialYear, long[] amounts, int sign, Timestamp now) {
+        Object[] args = new Object[20];
+        for (int i = 0; i < 8; i++) {
+            args[i] = sign * amounts[i];
+            args[11 + i] = sign * amounts[i];
+        }
+        args[8] = now;
+        args[9] = employeeId;
+        args[10] = financialYear;
+        args[19] = now;
+        return args;
+    }
+
+    private static boolean counted(String status) {
+        return COUNTED_STATUSES.contains(status);
+    }
+
+    private static Integer financialYearOf(Contribution c) {
+        return c.period() != null ? PayrollRuleBook.financialYearOf(c.period()) : null;
+    }
+
+    // Recompute the whole table from PAYROLL; used on first start after the table was introduced
+    public int rebuild() {
+        payrollYtdRepo.deleteAllInBatch();
+
+        Map<List<Integer>, PayrollYtd> rows = new LinkedHashMap<>();
+        for (PayrollYtdTotals totals : payrollRepo.summarizeByEmployeeMonth()) {
+            Integer period = Payroll.periodOf(totals.getPayrollMonth(), totals.getPayrollYear());
+            if (period == null || totals.getEmployeeId() == null) {
+                continue;
+            }
+            int financialYear = PayrollRuleBook.financialYearOf(period);
+            PayrollYtd row = rows.computeIfAbsent(List.of(totals.getEmployeeId(), financialYear),
+                    key -> new PayrollYtd(totals.getEmployeeId(), financialYear));
+            long[] amounts = amounts(totals);
+            row.add(amounts[0], amounts[1], amounts[2], amounts[3], amounts[4], amounts[5], amounts[6], amounts[7]);
+        }
+        payrollYtdRepo.saveAll(rows.values());
+        log.info("Rebuilt payroll year-to-date totals: {} employee years", rows.size());
+        return rows.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildIfMissing() {
+        try {
+            if (payrollYtdRepo.count() == 0 && payrollRepo.count() > 0) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> rebuild());
+            }
+        } catch (DataAccessException e) {
+            // Another node rebuilt it at the same time
+            log.warn("Payroll year-to-date rebuild skipped: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.hr.service;
+
+import com.hr.repository.projection.PayrollRegisterRow;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Renders a salary slip PDF from a stored payroll breakdown.
+ * Stateless and safe to call from several threads at once.
+ */
+@Component
+public class PayslipRenderer {
+
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16);
+    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11);
+    private static final Font BODY_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10);
+
+    public void render(PayrollRegisterRow payroll, OutputStream out) throws DocumentException {
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        // The caller owns the stream (it may be a zip entry)
+        writer.setCloseStream(false);
+
+        document.open();
+        Paragraph title = new Paragraph("Salary Slip - " + payroll.getPayrollMonth() + " " + payroll.getPayrollYear(), TITLE_FONT);
+        title.setAlignment(Element.ALIGN_CENTER);
+        title.setSpacingAfter(12);
+        document.add(title);
+
+        document.add(new Paragraph("Employee: " + nullToDash(payroll.getEmployeeName()), BODY_FONT));
+        document.add(new Paragraph("Employee ID: " + payroll.getEmployeeId(), BODY_FONT));
+        document.add(new Paragraph("Department: " + nullToDash(payroll.getDepartment()), BODY_FONT));
+        document.add(new Paragraph("Designation: " + nullToDash(payroll.getDesignation()), BODY_FONT));
+        document.add(new Paragraph("Attendance: " + payroll.getPresentDays() + " / " + payroll.getWorkingDays() + " days", BODY_FONT));
+        document.add(new Paragraph("Status: " + payroll.getStatus(), BODY_FONT));
+
+        PdfPTable table = new PdfPTable(4);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(12);
+        addHeader(table, "Earnings");
+        addHeader(table, "Amount");
+        addHeader(table, "Deductions");
+        addHeader(table, "Amount");
+        addRow(table, "Basic Salary", payroll.getBasicSalary(), "Provident Fund", payroll.getPfDeduction());
+        addRow(table, "HRA", payroll.getHra(), "ESI", payroll.getEsiDeduction());
+        addRow(table, "Transport Allowance", payroll.getTransportAllowance(), "Professional Tax", payroll.getProfessionalTax());
+        addRow(table, "Medical Allowance", payroll.getMedicalAllowance(), "Income Tax", payroll.getIncomeTax());
+        addRow(table, "Other Allowances", payroll.getOtherAllowances(), "Insurance", payroll.getInsuranceDeduction());
+        addRow(table, "", null, "Other Deductions", payroll.getOtherDeductions());
+        addHeader(table, "Gross Salary");
+        addAmount(table, payroll.getGrossSalary(), HEADER_FONT);
+        addHeader(table, "Total Deductions");
+        addAmount(table, payroll.getTotalDeductions(), HEADER_FONT);
+        document.add(table);
+
+        Paragraph net = new Paragraph("Net Salary: " + formatAmount(payroll.getNetSalary()), TITLE_FONT);
+        net.setSpacingBefore(12);
+        document.add(net);
+        document.close();
+    }
+
+    private void addHeader(PdfPTable table, String text) {
+        table.addCell(new PdfPCell(new Phrase(text, HEADER_FONT)));
+    }
+
+    private void addRow(PdfPTable table, String earning, Double earningAmount, String deduction, Double deductionAmount) {
+        table.addCell(new PdfPCell(new Phrase(earning, BODY_FONT)));
+        addAmount(table, earningAmount, BODY_FONT);
+        table.addCell(new PdfPCell(new Phrase(deduction, BODY_FONT)));
+        addAmount(table, deductionAmount, BODY_FONT);
+    }
+
+    private void addAmount(PdfPTable table, Double amount, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(amount != null ? formatAmount(amount) : "", font));
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        table.addCell(cell);
+    }
+
+    private String formatAmount(Double amount) {
+        return String.format(Locale.ROOT, "%,.2f", amount != null ? amount : 0.0);
+    }
+
+    private String nullToDash(String value) {
+        return value != null ? value : "-";
+    }
+}
@@ -0,0 +1,166 @@
+package com.hr.service;
+
+import com.hr.repository.PayrollRepo;
+import com.hr.repository.projection.PayrollRegisterRow;
+import com.itextpdf.text.DocumentException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * On-disk store of rendered salary slips.
+ *
+ * A slip is stored as {root}/{payrollId}/{version}-{sha256}.pdf, where the
+ * version comes from the payroll's updatedDate. Any change to the payroll row
+ * produces a new version, so a stale PDF is never served; evict() only frees
+ * the disk space early. The content hash doubles as the HTTP ETag.
+ */
+@Slf4j
+@Component
+public class PayslipStore {
+
+    private static final int LOCK_STRIPES = 64;
+
+    public record StoredPayslip(Integer payrollId, Integer employeeId, Path path, String contentHash, long size) {
+
+        public String getETag() {
+            return "\"" + contentHash + "\"";
+        }
+    }
+
+    private final PayrollRepo payrollRepo;
+    private final PayslipRenderer payslipRenderer;
+    private final Path root;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public PayslipStore(PayrollRepo payrollRepo,
+                        PayslipRenderer payslipRenderer,
+                        @Value("${payroll.payslip.store-dir:${java.io.tmpdir}/hr-payslips}") String storeDir) throws IOException {
+        this.payrollRepo = payrollRepo;
+        this.payslipRenderer = payslipRenderer;
+        this.root = Files.createDirectories(Paths.get(storeDir));
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Stored slip for the payroll's current version, rendered on first request
+    public Optional<StoredPayslip> get(Integer payrollId) throws IOException {
+        Optional<PayrollRegisterRow> row = payrollRepo.findRegisterRowById(payrollId);
+        if (row.isEmpty()) {
+            return Optional.empty();
+        }
+        String version = versionOf(row.get().getUpdatedDate());
+        Path dir = root.resolve(String.valueOf(payrollId));
+
+        synchronized (lockFor(payrollId)) {
+            Optional<StoredPayslip> stored = find(row.get(), dir, version);
+            if (stored.isPresent()) {
+                return stored;
+            }
+            StoredPayslip rendered = renderAndStore(row.get(), dir, version);
+            deleteOthers(dir, rendered.path());
+            return Optional.of(rendered);
+        }
+    }
+
+    public void evict(Integer payrollId) {
+        Path dir = root.resolve(String.valueOf(payrollId));
+        synchronized (lockFor(payrollId)) {
+            deleteOthers(dir, null);
+        }
+    }
+
+    private Optional<StoredPayslip> find(PayrollRegisterRow row, Path dir, String version) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, version + "-*.pdf")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String hash = name.substring(version.length() + 1, name.length() - ".pdf".length());
+                try {
+                    return Optional.of(new StoredPayslip(row.getPayrollId(), row.getEmployeeId(), file, hash, Files.size(file)));
+                } catch (NoSuchFileException e) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private StoredPayslip renderAndStore(PayrollRegisterRow row, Path dir, String version) throws IOException {
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "render-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), digest)) {
+                payslipRenderer.render(row, out);
+            } catch (DocumentException e) {
+                throw new IOException("Could not render payslip for payroll " + row.getPayrollId(), e);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = dir.resolve(version + "-" + hash + ".pdf");
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Stored payslip for payroll {} as {}", row.getPayrollId(), target.getFileName());
+            return new StoredPayslip(row.getPayrollId(), row.getEmployeeId(), target, hash, Files.size(target));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Remove every file of the payroll except keep (null removes all)
+    private void deleteOthers(Path dir, Path keep) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> !file.equals(keep)).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete stale payslip {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not clean payslip directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private String versionOf(LocalDateTime updatedDate) {
+        if (updatedDate == null) {
+            return "0";
+        }
+        return Long.toString(updatedDate.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedDate.getNano() / 1_000);
+    }
+
+    private Object lockFor(Integer payrollId) {
+        return locks[Math.floorMod(payrollId, LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
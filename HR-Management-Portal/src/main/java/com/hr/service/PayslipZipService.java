@@ -0,0 +1,159 @@
+package com.hr.service;
+
+import com.hr.repository.PayrollRepo;
+import com.hr.repository.projection.PayrollRegisterRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams every salary slip of a month into a ZIP archive.
+ *
+ * Payroll rows are scrolled from the database, rendered on a fixed pool of
+ * worker threads and written to the archive in completion order. Each request
+ * keeps at most a few slips in flight, so memory use is bounded by that
+ * window rather than by the number of employees.
+ */
+@Slf4j
+@Service
+public class PayslipZipService {
+
+    private final PayrollRepo payrollRepo;
+    private final PayslipRenderer payslipRenderer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService renderPool;
+    private final int maxInFlight;
+
+    private record RenderedSlip(String entryName, byte[] pdf, String error) { }
+
+    public PayslipZipService(PayrollRepo payrollRepo,
+                             PayslipRenderer payslipRenderer,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${payroll.payslip.workers:4}") int workers) {
+        this.payrollRepo = payrollRepo;
+        this.payslipRenderer = payslipRenderer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxInFlight = Math.max(1, workers) * 2;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "payslip-render-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String fileName(String month, Integer year) {
+        return "payslips-" + month.toLowerCase() + "-" + year + ".zip";
+    }
+
+    public void writeZip(String month, Integer year, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDF content streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        List<String> errors = new ArrayList<>();
+        int written;
+        try {
+            written = readOnlyTransaction.execute(status -> {
+                try (Stream<PayrollRegisterRow> register = payrollRepo.streamRegister(month, year)) {
+                    return renderAll(register, zip, errors);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errors.txt"));
+            zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+        log.info("Streamed {} payslips for {} {} ({} failed)", written, month, year, errors.size());
+    }
+
+    private int renderAll(Stream<PayrollRegisterRow> register, ZipOutputStream zip, List<String> errors) throws IOException {
+        CompletionService<RenderedSlip> completion = new ExecutorCompletionService<>(renderPool);
+        int inFlight = 0;
+        int written = 0;
+        try {
+            for (PayrollRegisterRow row : (Iterable<PayrollRegisterRow>) register::iterator) {
+                if (inFlight == maxInFlight) {
+                    written += writeNext(completion, zip, errors);
+                    inFlight--;
+                }
+                completion.submit(() -> render(row));
+                inFlight++;
+            }
+            while (inFlight > 0) {
+                written += writeNext(completion, zip, errors);
+                inFlight--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Payslip export interrupted", e);
+        }
+        return written;
+    }
+
+    private RenderedSlip render(PayrollRegisterRow row) {
+        String entryName = "payslip_" + row.getEmployeeId() + "_" + row.getPayrollId() + ".pdf";
+        try {
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream(8 * 1024);
+            payslipRenderer.render(row, pdf);
+            return new RenderedSlip(entryName, pdf.toByteArray(), null);
+        } catch (Exception e) {
+            return new RenderedSlip(entryName, null, e.getMessage());
+        }
+    }
+
+    private int writeNext(CompletionService<RenderedSlip> completion, ZipOutputStream zip, List<String> errors)
+            throws InterruptedException, IOException {
+        RenderedSlip slip;
+        try {
+            slip = completion.take().get();
+        } catch (ExecutionException e) {
+            errors.add("Render failed: " + e.getCause().getMessage());
+            return 0;
+        }
+        if (slip.error() != null) {
+            errors.add(slip.entryName() + ": " + slip.error());
+            return 0;
+        }
+        zip.putNextEntry(new ZipEntry(slip.entryName()));
+        zip.write(slip.pdf());
+        zip.closeEntry();
+        return 1;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+}
@@ -0,0 +1,149 @@
+package com.hr.leave;
+
+import com.hr.leave.LeaveIntervalIndex.Leave;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaveIntervalIndexTest {
+
+    private static final LocalDate APRIL_1 = LocalDate.of(2025, 4, 1);
+
+    private static Leave leave(int leaveId, int employeeId, LocalDate from, LocalDate to) {
+        return Leave.of(leaveId, employeeId, from, to);
+    }
+
+    private static List<Integer> ids(List<Leave> leaves) {
+        return leaves.stream().map(Leave::leaveId).toList();
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        assertEquals(0, LeaveIntervalIndex.EMPTY.size());
+        assertTrue(LeaveIntervalIndex.EMPTY.overlapping(APRIL_1, APRIL_1.plusDays(30)).isEmpty());
+        assertFalse(LeaveIntervalIndex.EMPTY.anyOn(APRIL_1));
+    }
+
+    @Test
+    void bothEndsAreInclusive() {
+        LeaveIntervalIndex index = LeaveIntervalIndex.of(List.of(leave(1, 10, APRIL_1, APRIL_1.plusDays(2))));
+
+        assertEquals(List.of(1), ids(index.overlapping(APRIL_1.plusDays(2), APRIL_1.plusDays(9))));
+        assertEquals(List.of(1), ids(index.overlapping(APRIL_1.minusDays(5), APRIL_1)));
+        assertTrue(index.overlapping(APRIL_1.plusDays(3), APRIL_1.plusDays(9)).isEmpty());
+        assertTrue(index.overlapping(APRIL_1.minusDays(5), APRIL_1.minusDays(1)).isEmpty());
+
+        assertTrue(index.anyOn(APRIL_1));
+        assertTrue(index.anyOn(APRIL_1.plusDays(2)));
+        assertFalse(index.anyOn(APRIL_1.minusDays(1)));
+        assertFalse(index.anyOn(APRIL_1.plusDays(3)));
+    }
+
+    @Test
+    void singleDayLeave() {
+        LeaveIntervalIndex index = LeaveIntervalIndex.of(List.of(leave(1, 10, APRIL_1, APRIL_1)));
+
+        assertEquals(List.of(1), ids(index.overlapping(APRIL_1, APRIL_1)));
+        assertTrue(index.anyOn(APRIL_1));
+        assertFalse(index.anyOn(APRIL_1.plusDays(1)));
+    }
+
+    @Test
+    void nestedAndLongIntervals() {
+        // A long leave starting first must still be found when shorter ones after it have ended
+        LeaveIntervalIndex index = LeaveIntervalIndex.of(List.of(
+                leave(1, 10, APRIL_1, APRIL_1.plusDays(90)),
+                leave(2, 11, APRIL_1.plusDays(5), APRIL_1.plusDays(20)),
+                leave(3, 12, APRIL_1.plusDays(10), APRIL_1.plusDays(12)),
+                leave(4, 13, APRIL_1.plusDays(30), APRIL_1.plusDays(31)),
+                leave(5, 14, APRIL_1.plusDays(100), APRIL_1.plusDays(101))));
+
+        assertEquals(List.of(1, 2, 3), ids(index.overlapping(APRIL_1.plusDays(11), APRIL_1.plusDays(11))));
+        assertEquals(List.of(1), ids(index.overlapping(APRIL_1.plusDays(40), APRIL_1.plusDays(60))));
+        assertEquals(List.of(1, 5), ids(index.overlapping(APRIL_1.plusDays(90), APRIL_1.plusDays(100))));
+        assertTrue(index.overlapping(APRIL_1.plusDays(91), APRIL_1.plusDays(99)).isEmpty());
+        assertTrue(index.anyOn(APRIL_1.plusDays(60)));
+        assertFalse(index.anyOn(APRIL_1.plusDays(95)));
+    }
+
+    @Test
+    void resultsAreInOrderOfFirstDay() {
+        LeaveIntervalIndex index = LeaveIntervalIndex.of(List.of(
+                leave(7, 10, APRIL_1.plusDays(4), APRIL_1.plusDays(6)),
+                leave(3, 11, APRIL_1, APRIL_1.plusDays(9)),
+                leave(5, 12, APRIL_1.plusDays(4), APRIL_1.plusDays(5))));
+
+        assertEquals(List.of(3, 5, 7), ids(index.overlapping(APRIL_1, APRIL_1.plusDays(9))));
+    }
+
+    @Test
+    void withReplacesTheSameLeaveRequest() {
+        LeaveIntervalIndex index = LeaveIntervalIndex.of(List.of(
+                leave(1, 10, APRIL_1, APRIL_1.plusDays(2)),
+                leave(2, 11, APRIL_1.plusDays(5), APRIL_1.plusDays(6))));
+
+        LeaveIntervalIndex moved = index.with(leave(1, 10, APRIL_1.plusDays(20), APRIL_1.plusDays(21)));
+
+        assertEquals(2, moved.size());
+        assertFalse(moved.anyOn(APRIL_1));
+        assertEquals(List.of(2, 1), ids(moved.overlapping(APRIL_1, APRIL_1.plusDays(30))));
+        // The original is unchanged
+        assertTrue(index.anyOn(APRIL_1));
+        assertFalse(index.anyOn(APRIL_1.plusDays(20)));
+    }
+
+    @Test
+    void withoutRemovesOnlyThatLeave() {
+        LeaveIntervalIndex index = LeaveIntervalIndex.of(List.of(
+                leave(1, 10, APRIL_1, APRIL_1.plusDays(2)),
+                leave(2, 10, APRIL_1, APRIL_1.plusDays(2))));
+
+        LeaveIntervalIndex removed = index.without(1);
+
+        assertEquals(List.of(2), ids(removed.overlapping(APRIL_1, APRIL_1)));
+        assertSame(removed, removed.without(1));
+        assertEquals(0, removed.without(2).size());
+    }
+
+    @Test
+    void matchesALinearScan() {
+        Random random = new Random(42);
+        List<Leave> leaves = new ArrayList<>();
+        LeaveIntervalIndex index = LeaveIntervalIndex.EMPTY;
+        for (int id = 1; id <= 400; id++) {
+            LocalDate from = APRIL_1.plusDays(random.nextInt(365));
+            Leave leave = leave(id, random.nextInt(50), from, from.plusDays(random.nextInt(random.nextInt(10) == 0 ? 120 : 5)));
+            leaves.add(leave);
+            index = index.with(leave);
+        }
+        for (int i = 0; i < 100; i++) {
+            int removedId = 1 + random.nextInt(400);
+            leaves.removeIf(l -> l.leaveId() == removedId);
+            index = index.without(removedId);
+        }
+        assertEquals(ids(LeaveIntervalIndex.of(leaves).leaves()), ids(index.leaves()));
+
+        for (int i = 0; i < 500; i++) {
+            LocalDate from = APRIL_1.plusDays(random.nextInt(400) - 20);
+            LocalDate to = from.plusDays(random.nextInt(30));
+            int first = (int) from.toEpochDay();
+            int last = (int) to.toEpochDay();
+            List<Integer> expected = leaves.stream()
+                    .filter(l -> l.firstDay() <= last && l.lastDay() >= first)
+                    .sorted(Comparator.comparingInt(Leave::firstDay).thenComparingInt(Leave::leaveId))
+                    .map(Leave::leaveId)
+                    .toList();
+            assertEquals(expected, ids(index.overlapping(from, to)));
+            assertEquals(leaves.stream().anyMatch(l -> l.firstDay() <= first && l.lastDay() >= first), index.anyOn(from));
+        }
+    }
+}
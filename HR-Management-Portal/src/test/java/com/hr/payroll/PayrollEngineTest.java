@@ -0,0 +1,165 @@
+package com.hr.payroll;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollEngineTest {
+
+    private final PayrollEngine engine = PayrollEngine.standard();
+
+    // One employee through the engine: {hra, gross, pf, esi, pt, insurance, tax, deductions, net} in paise
+    private long[] calculate(long basicPaise, long otherAllowancesPaise, long otherDeductionsPaise,
+                             int workingDays, int presentDays) {
+        PayrollBatch batch = new PayrollBatch(1);
+        int row = batch.add(basicPaise, otherAllowancesPaise, otherDeductionsPaise, workingDays, presentDays);
+        engine.calculate(batch);
+        return new long[] {batch.getHra(row), batch.getGrossSalary(row), batch.getPfDeduction(row),
+                batch.getEsiDeduction(row), batch.getProfessionalTax(row), batch.getInsuranceDeduction(row),
+                batch.getIncomeTax(row), batch.getTotalDeductions(row), batch.getNetSalary(row)};
+    }
+
+    // The double formulas PayrollEngine replaced (Payroll.calculatePayroll), in rupees and in the same order
+    private static double[] legacy(double basic, double otherAllowances, double otherDeductions,
+                                   int workingDays, int presentDays) {
+        double hra = basic * 0.40;
+        double gross = basic + hra + 2000.0 + 1500.0 + otherAllowances;
+        double pf = gross * 0.12;
+        double esi = gross * 0.0175;
+        double pt = 200.0;
+        double insurance = gross * 0.02;
+        double tax = legacyMonthlyTax(gross * 12);
+        double deductions = pf + esi + pt + tax + insurance + otherDeductions;
+        double net = (gross - deductions) * ((double) presentDays / workingDays);
+        return new double[] {hra, gross, pf, esi, pt, insurance, tax, deductions, net};
+    }
+
+    private static double legacyMonthlyTax(double annual) {
+        double tax = 0.0;
+        if (annual > 250000) {
+            if (annual <= 500000) {
+                tax = (annual - 250000) * 0.05;
+            } else if (annual <= 1000000) {
+                tax = 12500 + (annual - 500000) * 0.20;
+            } else {
+                tax = 112500 + (annual - 1000000) * 0.30;
+            }
+        }
+        return tax / 12;
+    }
+
+    private static long paise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+
+    @Test
+    void noTaxUpToTheFirstSlabFloor() {
+        assertEquals(0, engine.monthlyIncomeTax(0));
+        assertEquals(0, engine.monthlyIncomeTax(24_999_999L));
+        // Exactly 2.5L is on the floor, which belongs to the slab below
+        assertEquals(0, engine.monthlyIncomeTax(25_000_000L));
+    }
+
+    @Test
+    void amountsOnASlabFloorAreTaxedAtTheRateBelow() {
+        // 5L: 5% of 2.5L = 12,500 a year
+        assertEquals(paise(12_500.0 / 12), engine.monthlyIncomeTax(50_000_000L));
+        // 10L: 12,500 + 20% of 5L = 112,500 a year, exactly 9,375 a month
+        assertEquals(937_500L, engine.monthlyIncomeTax(100_000_000L));
+    }
+
+    @Test
+    void amountsAboveASlabFloorAreTaxedAtTheRateAbove() {
+        // One rupee above each floor adds that slab's rate of a rupee to the annual tax
+        assertEquals(paise(0.05 / 12), engine.monthlyIncomeTax(25_000_100L));
+        assertEquals(paise((12_500 + 0.20) / 12), engine.monthlyIncomeTax(50_000_100L));
+        assertEquals(paise((112_500 + 0.30) / 12), engine.monthlyIncomeTax(100_000_100L));
+        // A paisa below 10L still sits in the 20% slab
+        assertEquals(paise((12_500 + 499_999.99 * 0.20) / 12), engine.monthlyIncomeTax(99_999_999L));
+    }
+
+    @Test
+    void taxIsSplitFromTheExactAnnualAmount() {
+        for (long annual : new long[] {25_000_001L, 37_123_457L, 50_000_001L, 76_543_211L, 100_000_001L, 250_000_000L}) {
+            long expected = paise(legacyMonthlyTax(annual / 100.0));
+            long actual = engine.monthlyIncomeTax(annual);
+            assertTrue(Math.abs(expected - actual) <= 1, "annual " + annual + ": " + actual + " vs " + expected);
+        }
+    }
+
+    @Test
+    void fullAttendanceIsNotProRated() {
+        long[] slip = calculate(5_000_000L, 0, 0, 30, 30);
+        assertEquals(slip[1] - slip[7], slip[8]);
+    }
+
+    @Test
+    void netIsProRatedByAttendance() {
+        long[] full = calculate(5_000_000L, 0, 0, 30, 30);
+        long[] half = calculate(5_000_000L, 0, 0, 30, 15);
+        long[] none = calculate(5_000_000L, 0, 0, 30, 0);
+
+        // Only net depends on attendance
+        for (int i = 0; i < 8; i++) {
+            assertEquals(full[i], half[i]);
+        }
+        assertEquals(PayrollEngine.divideRounded(full[8], 2), half[8]);
+        assertEquals(0, none[8]);
+        assertEquals(PayrollEngine.divideRounded(full[8] * 22, 26), calculate(5_000_000L, 0, 0, 26, 22)[8]);
+    }
+
+    @Test
+    void noWorkingDaysMeansNoProRating() {
+        // The double formula divided by zero here and stored NaN
+        long[] slip = calculate(5_000_000L, 0, 0, 0, 0);
+        assertEquals(slip[1] - slip[7], slip[8]);
+        assertTrue(Double.isNaN(legacy(50_000, 0, 0, 0, 0)[8]));
+    }
+
+    @Test
+    void nothingIsPaidWithoutABasicSalary() {
+        long[] slip = calculate(0, 100_000L, 50_000L, 30, 30);
+        for (long amount : slip) {
+            assertEquals(0, amount);
+        }
+    }
+
+    @Test
+    void componentsAreRoundedToThePaisa() {
+        // 12,345.67: HRA 40% = 4,938.268, so gross is 20,783.94 and PF 12% of it 2,494.0728
+        long[] slip = calculate(1_234_567L, 0, 0, 30, 30);
+        assertEquals(493_827L, slip[0]);
+        assertEquals(2_078_394L, slip[1]);
+        assertEquals(249_407L, slip[2]);
+    }
+
+    @Test
+    void agreesWithTheDoubleFormulas() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            long basic = 100 + random.nextInt(50_000_000);
+            long otherAllowances = random.nextInt(4) == 0 ? random.nextInt(2_000_000) : 0;
+            long otherDeductions = random.nextInt(4) == 0 ? random.nextInt(500_000) : 0;
+            int workingDays = 20 + random.nextInt(11);
+            int presentDays = random.nextInt(workingDays + 1);
+
+            long[] slip = calculate(basic, otherAllowances, otherDeductions, workingDays, presentDays);
+            double[] old = legacy(basic / 100.0, otherAllowances / 100.0, otherDeductions / 100.0,
+                    workingDays, presentDays);
+
+            // Every component is the old value rounded to the paisa
+            for (int c = 0; c < 7; c++) {
+                long expected = paise(old[c]);
+                assertTrue(Math.abs(expected - slip[c]) <= 1,
+                        "component " + c + " for basic " + basic + ": " + slip[c] + " vs " + expected);
+            }
+            // Totals add up the rounded components, so they can differ by a paisa per rounded component
+            assertTrue(Math.abs(paise(old[7]) - slip[7]) <= 5, "deductions for basic " + basic);
+            assertTrue(Math.abs(paise(old[8]) - slip[8]) <= 6, "net for basic " + basic);
+            assertEquals(slip[2] + slip[3] + slip[4] + slip[5] + slip[6] + otherDeductions, slip[7]);
+        }
+    }
+}